@@ -0,0 +1,182 @@
+package controller;
+
+import model.GameState;
+
+import java.awt.*;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Measures how long events wait for the event dispatch thread. Every
+ * PROBE_INTERVAL ms a daemon thread posts an empty event and records how
+ * long it took to run in a histogram of power-of-two buckets. When a probe
+ * has waited longer than the stall threshold, the thread writes the EDT's
+ * stack and the position of the watched game (read from Game.getState, so
+ * without the EDT) to a file in the diagnostics directory, once per stall.
+ *
+ * The cost is one event and a few atomic adds ten times a second, so the
+ * watchdog can stay on. GameFrame starts the shared one; with
+ * -Dsenet.edtHistogram=true the histogram is printed to standard error when
+ * the JVM exits.
+ */
+public final class EdtWatchdog {
+    private static final Logger logger = Logger.getLogger(EdtWatchdog.class.getName());
+    public static final int PROBE_INTERVAL = 100;
+    public static final int DEFAULT_THRESHOLD = 500;
+    private static final int BUCKETS = 14; // < 1 ms, 1-2 ms, ..., >= 4096 ms
+    private static final int MAX_REPORTS = 20; // Diagnostics files per run
+
+    private static EdtWatchdog shared;
+
+    private final AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+    private final AtomicInteger reports = new AtomicInteger();
+    private volatile long maxLatency = 0; // Nanoseconds; written by the EDT only
+    private volatile long pendingSince = 0; // nanoTime the outstanding probe was posted, 0 if none
+    private volatile Thread edt;
+    private volatile Supplier<GameState> state = () -> null;
+    private volatile int threshold = DEFAULT_THRESHOLD;
+    private volatile Path directory = Path.of("diagnostics");
+
+    private EdtWatchdog() {}
+
+    /**
+     * The watchdog of this JVM, started on first use
+     */
+    public static synchronized EdtWatchdog shared() {
+        if (shared == null) {
+            shared = new EdtWatchdog();
+            Thread thread = new Thread(shared::run, "edt-watchdog");
+            thread.setDaemon(true);
+            thread.start();
+            if (Boolean.getBoolean("senet.edtHistogram")) {
+                EdtWatchdog watchdog = shared;
+                // Not through logger: LogManager closes its handlers in a shutdown hook of its own
+                Runtime.getRuntime().addShutdownHook(new Thread(() -> System.err.println(watchdog.formatHistogram())));
+            }
+        }
+        return shared;
+    }
+
+    /**
+     * @param state Position to write with a stall report, for instance game::getState
+     */
+    public void watch(Supplier<GameState> state) { this.state = state; }
+
+    /**
+     * @param millis Probe wait that counts as a stall
+     */
+    public void setThreshold(int millis) {
+        if (millis < PROBE_INTERVAL) throw new IllegalArgumentException("Threshold below the probe interval: " + millis);
+        this.threshold = millis;
+    }
+
+    public void setDirectory(Path directory) { this.directory = directory; }
+
+    private void run() {
+        long reported = 0; // pendingSince of the probe already reported
+        try {
+            while (true) {
+                long since = pendingSince;
+                if (since == 0) {
+                    long posted = System.nanoTime();
+                    pendingSince = posted;
+                    EventQueue.invokeLater(() -> probeArrived(posted));
+                } else if (since != reported && System.nanoTime() - since > threshold * 1_000_000L) {
+                    reported = since;
+                    report(System.nanoTime() - since);
+                }
+                Thread.sleep(PROBE_INTERVAL);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void probeArrived(long posted) {
+        long latency = System.nanoTime() - posted;
+        edt = Thread.currentThread();
+        long millis = latency / 1_000_000;
+        int bucket = millis == 0 ? 0 : Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(millis));
+        histogram.incrementAndGet(bucket);
+        if (latency > maxLatency) maxLatency = latency;
+        if (millis > threshold) {
+            logger.warning(String.format("EDT stall ended after %d ms", millis));
+        }
+        pendingSince = 0;
+    }
+
+    /**
+     * Writes the EDT stack and the game position while the EDT is still stuck
+     */
+    private void report(long waited) {
+        Thread thread = edt;
+        StackTraceElement[] stack = thread != null ? thread.getStackTrace() : new StackTraceElement[0];
+        if (reports.incrementAndGet() > MAX_REPORTS) {
+            logger.warning(String.format("EDT stalled for %d ms (report limit reached)", waited / 1_000_000));
+            return;
+        }
+        String time = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS"));
+        Path file = directory.resolve("edt-stall-" + time + ".txt");
+        try {
+            Files.createDirectories(directory);
+            try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file))) {
+                out.printf("EDT stall: event waiting %d ms (threshold %d ms) at %s%n", waited / 1_000_000, threshold, time);
+                GameState position = null;
+                try {
+                    position = state.get();
+                } catch (RuntimeException e) {
+                    out.println("Position unavailable: " + e);
+                }
+                if (position != null) {
+                    out.println("Position: " + position + " (last move flags " + position.getLastMoveFlags() + ")");
+                }
+                out.println();
+                if (thread == null) {
+                    out.println("EDT not seen yet");
+                } else {
+                    out.println("\"" + thread.getName() + "\" " + thread.getState());
+                    for (StackTraceElement element : stack) out.println("    at " + element);
+                }
+                out.println();
+                out.println(formatHistogram());
+            }
+            logger.warning(String.format("EDT stalled for %d ms; diagnostics in %s", waited / 1_000_000, file.toAbsolutePath()));
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Cannot write EDT stall report " + file, e);
+        }
+    }
+
+    /**
+     * Probes run, by latency bucket: bucket 0 is under 1 ms, bucket i from 2^(i-1) ms
+     */
+    public long[] getHistogram() {
+        long[] counts = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) counts[i] = histogram.get(i);
+        return counts;
+    }
+
+    public long getMaxLatencyMillis() { return maxLatency / 1_000_000; }
+
+    public String formatHistogram() {
+        long[] counts = getHistogram();
+        long total = 0;
+        for (long count : counts) total += count;
+        StringBuilder text = new StringBuilder(String.format("EDT latency, %d probes, max %d ms:", total, getMaxLatencyMillis()));
+        for (int i = 0; i < BUCKETS; i++) {
+            if (counts[i] == 0) continue;
+            String range = i == 0 ? "< 1 ms" : i == BUCKETS - 1 ? ">= " + (1L << (i - 1)) + " ms"
+                : (1L << (i - 1)) + "-" + (1L << i) + " ms";
+            text.append(String.format("%n  %-14s %8d  %5.1f%%", range, counts[i], 100.0 * counts[i] / total));
+        }
+        return text.toString();
+    }
+}
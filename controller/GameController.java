@@ -1,31 +1,47 @@
 package controller;
 
 import model.ComputerPlayer;
+import model.ComputerStrategy;
 import model.Game;
 import model.Piece;
-import view.BoardPanel;
+import model.RuleTable;
+import view.BoardView;
 
 import javax.swing.*;
 
 public class GameController {
 
     private final Game game;
-    private final BoardPanel board;
-    private final boolean computerMode;
-    private ComputerPlayer computerPlayer;
+    private final BoardView board;
+    private final TurnPipeline turns;
     private JLabel rollLabel;
     private JLabel player1Label;
     private JLabel player2Label;
     private JButton rollButton;
-    private int lastRoll = 0;
+    private MoveHintService moveHints;
 
-    public GameController(Game game, BoardPanel board, boolean computerMode) {
+    public GameController(Game game, BoardView board, boolean computerMode) {
+        this(game, board, computerMode ? new ComputerPlayer(game) : null);
+    }
+
+    /**
+     * @param computerPlayer Opponent playing as player 2, or null for two human players
+     */
+    public GameController(Game game, BoardView board, ComputerStrategy computerPlayer) {
+        this(game, board, null, computerPlayer);
+    }
+
+    /**
+     * @param player1 Strategy playing as player 1, or null for a human
+     * @param player2 Strategy playing as player 2, or null for a human
+     */
+    public GameController(Game game, BoardView board, ComputerStrategy player1, ComputerStrategy player2) {
         this.game = game;
         this.board = board;
-        this.computerMode = computerMode;
-        if (computerMode) {
-            this.computerPlayer = new ComputerPlayer(game);
-        }
+        this.turns = new TurnPipeline(game);
+        turns.setComputer(1, player1);
+        turns.setComputer(2, player2);
+        turns.setListener(new TurnMessages());
         refreshBoard();
     }
 
@@ -38,259 +54,143 @@ public class GameController {
     
     public void setRollButton(JButton rollButton) {
         this.rollButton = rollButton;
+        updateButtonState();
+    }
+
+    /**
+     * Milliseconds before a computer rolls and before it moves; 0 and 0 play
+     * computer turns instantly
+     */
+    public void setPacing(int rollDelay, int moveDelay) {
+        turns.setPacing(rollDelay, moveDelay);
+    }
+
+    /**
+     * Starts play once the view is built; a computer moving first rolls by itself
+     */
+    public void start() {
+        turns.start();
+    }
+
+    /**
+     * Stops any pending computer turn
+     */
+    public void stop() {
+        turns.stop();
+    }
+
+    // Show the value of each legal move while a human player chooses
+    public void setMoveHintsEnabled(boolean enabled) {
+        if (enabled && moveHints == null) {
+            moveHints = new MoveHintService(board);
+            requestMoveHints();
+        } else if (!enabled && moveHints != null) {
+            moveHints.shutdown();
+            moveHints = null;
+        }
     }
 
     // Roll sticks
     public void rollSticks() {
-        if (lastRoll != 0) return; // Already rolled, need to move first
-        lastRoll = game.rollSticks();
-        String playerName = (computerMode && game.getCurrentPlayer() == 2) ? "Computer" : "Player " + game.getCurrentPlayer();
-        if (rollLabel != null)
-            rollLabel.setText(playerName + " rolled: " + lastRoll);
-        updateButtonState();
+        turns.roll();
     }
-    
-    // Make computer move
-    public void makeComputerMove() {
-        if (!computerMode || game.getCurrentPlayer() != 2 || lastRoll == 0) {
-            return;
-        }
-        
-        Piece pieceToMove = computerPlayer.makeMove(lastRoll);
-        if (pieceToMove != null) {
-            onPieceSelected(pieceToMove);
-        } else {
-            // No valid moves found - skip turn
-            if (rollLabel != null)
-                rollLabel.setText("Computer has no valid moves. Turn skipped automatically.");
-            System.out.println("Computer skipped turn - no valid moves available for roll: " + lastRoll);
-            lastRoll = 0;
-            game.nextPlayer();
-            refreshBoard();
-            updateButtonState();
-            
-            // If it's now computer's turn again (shouldn't happen, but handle it)
-            if (computerMode && game.getCurrentPlayer() == 2) {
-                Timer timer = new Timer(1000, evt -> {
-                    rollSticks();
-                    Timer moveTimer = new Timer(1500, evt2 -> {
-                        makeComputerMove();
-                    });
-                    moveTimer.setRepeats(false);
-                    moveTimer.start();
-                });
-                timer.setRepeats(false);
-                timer.start();
-            }
-        }
+
+    private void requestMoveHints() {
+        if (moveHints == null || !turns.isWaitingForMove()) return;
+        moveHints.analyse(game, turns.getRoll());
     }
 
     // Move piece
     public void onPieceSelected(Piece piece) {
-        if (piece.getOwner() != game.getCurrentPlayer()) return;
-        if (lastRoll == 0) return;
-
-        int pos = piece.getPosition();
-
-        // Three Truths / Re-Atoum / Horus
-        if (piece.canExitNextTurn()) {
-            int p = pos + 1;
-            switch (p) {
-                case 28 -> {
-                    if (lastRoll == 3) {
-                        piece.setCanExitNextTurn(false);
-                    } else {
-                        // Failed to exit Three Truths
-                        piece.setPosition(14);
-                        piece.setCanExitNextTurn(false);
-                        String playerName = (computerMode && game.getCurrentPlayer() == 2) ? "Computer" : "Player " + game.getCurrentPlayer();
-                        if (rollLabel != null) rollLabel.setText(playerName + " failed to exit Three Truths → back to Rebirth");
-                        lastRoll = 0;
-                        game.nextPlayer();
-                        refreshBoard();
-                        updateButtonState();
-                        // If computer mode and it's now computer's turn, auto-roll
-                        if (computerMode && game.getCurrentPlayer() == 2) {
-                            if (rollButton != null) rollButton.setEnabled(false);
-                            Timer timer = new Timer(1000, evt -> {
-                                rollSticks();
-                                Timer moveTimer = new Timer(1500, evt2 -> {
-                                    makeComputerMove();
-                                });
-                                moveTimer.setRepeats(false);
-                                moveTimer.start();
-                            });
-                            timer.setRepeats(false);
-                            timer.start();
-                        }
-                        return;
-                    }
-                }
-                case 29 -> {
-                    if (lastRoll == 2) {
-                        piece.setCanExitNextTurn(false);
-                    } else {
-                        // Failed to exit Re-Atoum
-                        piece.setPosition(14);
-                        piece.setCanExitNextTurn(false);
-                        String playerName = (computerMode && game.getCurrentPlayer() == 2) ? "Computer" : "Player " + game.getCurrentPlayer();
-                        if (rollLabel != null) rollLabel.setText(playerName + " failed to exit Re-Atoum → back to Rebirth");
-                        lastRoll = 0;
-                        game.nextPlayer();
-                        refreshBoard();
-                        updateButtonState();
-                        // If computer mode and it's now computer's turn, auto-roll
-                        if (computerMode && game.getCurrentPlayer() == 2) {
-                            if (rollButton != null) rollButton.setEnabled(false);
-                            Timer timer = new Timer(1000, evt -> {
-                                rollSticks();
-                                Timer moveTimer = new Timer(1500, evt2 -> {
-                                    makeComputerMove();
-                                });
-                                moveTimer.setRepeats(false);
-                                moveTimer.start();
-                            });
-                            timer.setRepeats(false);
-                            timer.start();
-                        }
-                        return;
-                    }
-                }
-                case 30 -> piece.setCanExitNextTurn(false);
-            }
-        }
+        turns.select(piece);
+    }
 
-        int targetPos = pos + lastRoll;
+    private String playerName(int player) {
+        if (!turns.isComputer(player)) return "Player " + player;
+        return turns.isComputer(3 - player) ? "Computer " + player : "Computer";
+    }
 
-        // House of Happiness
-        if (pos < 25 && targetPos > 25) {
+    /**
+     * Turn events to roll label messages, board refreshes and the game over dialog
+     */
+    private class TurnMessages implements TurnPipeline.Listener {
+        @Override
+        public void rolled(int player, int roll) {
             if (rollLabel != null)
-                rollLabel.setText("Cannot move past House of Happiness! Must roll exact number.");
-            return;
-        }
-
-        //  Collision
-        Piece occupyingPiece = game.getPieceAt(targetPos);
-        if (occupyingPiece != null) {
-            if (occupyingPiece.getOwner() != piece.getOwner()) {
-                // Swap
-                occupyingPiece.setPosition(pos);
-            } else {
-                if (rollLabel != null)
-                    rollLabel.setText("Cannot move onto your own piece!");
-                return;
-            }
+                rollLabel.setText(playerName(player) + " rolled: " + roll);
+            updateButtonState();
+            requestMoveHints();
         }
 
-        // House of Rebirth if occupied
-        if (targetPos == 14) {
-            Piece p = game.getPieceAt(14);
-            if (p != null && p != piece) {
-                targetPos = game.findEmptyBeforeRebirth();
+        @Override
+        public void moved(int player, Piece piece, int fromSquare, int flags) {
+            RuleTable rules = game.getBoard().getRules();
+            if ((flags & RuleTable.WATER_RESET) != 0) board.showMove(fromSquare, rules.getWaterSquare());
+            refreshBoard();
+            if (rollLabel == null) return;
+
+            // Three Truths / Re-Atoum: wrong throw sent the piece back to Rebirth
+            if ((flags & RuleTable.GATE_FAILED) != 0) {
+                rollLabel.setText(playerName(player) + " failed to exit " + rules.getHouseName(fromSquare) + " → back to Rebirth");
+            } else if ((flags & RuleTable.EXIT) != 0) {
+                rollLabel.setText(playerName(player) + " exited a piece!");
+            } else if ((flags & RuleTable.WATER_RESET) != 0) {
+                //  Special houses
+                rollLabel.setText("Player landed on " + rules.getHouseName(rules.getWaterSquare())
+                    + " → back to " + rules.getHouseName(piece.getPosition()) + "!");
+            } else if (rules.getHouseName(piece.getPosition()) != null) {
+                rollLabel.setText("Player landed on " + rules.getHouseName(piece.getPosition()) + "!");
             }
         }
 
-        //  Move piece
-        piece.setPosition(targetPos);
-
-        //  Other special houses
-        switch (targetPos + 1) {
-            case 15 -> { if (rollLabel != null) rollLabel.setText("Player landed on Rebirth!"); }
-            case 26 -> { if (rollLabel != null) rollLabel.setText("Player landed on Happiness!"); }
-            case 27 -> { piece.setPosition(14); if (rollLabel != null) rollLabel.setText("Player landed on Water → back to Rebirth!"); }
-            case 28 -> { piece.setCanExitNextTurn(true); if (rollLabel != null) rollLabel.setText("Player landed on Three Truths!"); }
-            case 29 -> { piece.setCanExitNextTurn(true); if (rollLabel != null) rollLabel.setText("Player landed on Re-Atoum!"); }
-            case 30 -> { piece.setCanExitNextTurn(true); if (rollLabel != null) rollLabel.setText("Player landed on Horus!"); }
+        @Override
+        public void rejected(int player, Piece piece, int flags) {
+            if (rollLabel == null) return;
+            if ((flags & RuleTable.BLOCKED) != 0)
+                rollLabel.setText("Cannot move past House of Happiness! Must roll exact number.");
+            else
+                rollLabel.setText("Cannot move onto your own piece!");
         }
 
-        //  Exit piece
-        if (targetPos >= 30) {
-            piece.setPosition(-1);
-            game.incrementPlayerExited(piece.getOwner());
-            String playerName = (computerMode && piece.getOwner() == 2) ? "Computer" : "Player " + piece.getOwner();
+        @Override
+        public void passed(int player, int roll) {
             if (rollLabel != null)
-                rollLabel.setText(playerName + " exited a piece!");
-            int winner = game.checkWinner();
-            if (winner != 0) {
-                String winnerName = (computerMode && winner == 2) ? "Computer" : "Player " + winner;
-                JOptionPane.showMessageDialog(board, winnerName + " wins!", "Game Over", JOptionPane.INFORMATION_MESSAGE);
-                return;
-            }
+                rollLabel.setText(playerName(player) + " has no valid moves. Turn skipped automatically.");
+            System.out.println(playerName(player) + " skipped turn - no valid moves available for roll: " + roll);
+            refreshBoard();
         }
 
-        //  Extra turn for 1,3,5
-        if (lastRoll == 1 || lastRoll == 3 || lastRoll == 5) {
-            String playerName = (computerMode && game.getCurrentPlayer() == 2) ? "Computer" : "Player " + game.getCurrentPlayer();
-            if (rollLabel != null) rollLabel.setText(playerName + " gets another turn!");
-            lastRoll = 0;
-            refreshBoard();
+        @Override
+        public void turnStarted(int player, boolean extraTurn) {
+            //  Extra turn for 1,3,5
+            if (extraTurn && rollLabel != null) rollLabel.setText(playerName(player) + " gets another turn!");
             updateButtonState();
-            
-            // If computer mode and it's computer's turn, auto-roll
-            if (computerMode && game.getCurrentPlayer() == 2) {
-                if (rollButton != null) rollButton.setEnabled(false);
-                Timer timer = new Timer(1000, evt -> {
-                    rollSticks();
-                    Timer moveTimer = new Timer(1500, evt2 -> {
-                        makeComputerMove();
-                    });
-                    moveTimer.setRepeats(false);
-                    moveTimer.start();
-                });
-                timer.setRepeats(false);
-                timer.start();
-            }
-            return;
         }
 
-        lastRoll = 0;
-        game.nextPlayer();
-        refreshBoard();
-        
-        // Update button state
-        updateButtonState();
-        
-        // If computer mode and it's now computer's turn, auto-roll
-        if (computerMode && game.getCurrentPlayer() == 2) {
-            if (rollButton != null) rollButton.setEnabled(false);
-            Timer timer = new Timer(1000, evt -> {
-                rollSticks();
-                Timer moveTimer = new Timer(1500, evt2 -> {
-                    makeComputerMove();
-                });
-                moveTimer.setRepeats(false);
-                moveTimer.start();
-            });
-            timer.setRepeats(false);
-            timer.start();
+        @Override
+        public void gameOver(int winner) {
+            updateButtonState();
+            JOptionPane.showMessageDialog(board, playerName(winner) + " wins!", "Game Over", JOptionPane.INFORMATION_MESSAGE);
         }
     }
 
     // Refresh board & info panel
     public void refreshBoard() {
+        if (moveHints != null) moveHints.clear();
         board.clearBoard();
         for (Piece p : game.getAllPieces()) {
             if (p.getPosition() >= 0 && p.getPosition() < 30)
                 board.placePiece(p.getPosition(), p);
         }
         if (player1Label != null)
-            player1Label.setText("Player 1: " + game.getPlayer1Exited() + " pieces exited");
+            player1Label.setText(playerName(1) + ": " + game.getPlayer1Exited() + " pieces exited");
         if (player2Label != null) {
-            String player2Text = computerMode ? 
-                "Computer: " + game.getPlayer2Exited() + " pieces exited" :
-                "Player 2: " + game.getPlayer2Exited() + " pieces exited";
-            player2Label.setText(player2Text);
+            player2Label.setText(playerName(2) + ": " + game.getPlayer2Exited() + " pieces exited");
         }
     }
     
-    // Update button state based on current player
+    // Roll button only while a human player has to roll
     private void updateButtonState() {
-        if (rollButton != null && computerMode) {
-            // Enable button only for player 1's turn
-            rollButton.setEnabled(game.getCurrentPlayer() == 1 && lastRoll == 0);
-        } else if (rollButton != null) {
-            // Two player mode: enable when no roll or after move
-            rollButton.setEnabled(lastRoll == 0);
-        }
+        if (rollButton != null) rollButton.setEnabled(turns.isWaitingForRoll());
     }
 }
@@ -0,0 +1,99 @@
+package controller;
+
+import model.ComputerPlayer;
+import model.Game;
+import model.GameState;
+import model.Piece;
+import view.BoardView;
+
+import javax.swing.*;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Computes the expectiminimax value of every legal move for the current roll
+ * on a background thread and pushes each value to the board as soon as it is
+ * known. Values are cached per (position, roll), so returning to a position
+ * shows its hints immediately. Nothing here ever blocks the EDT.
+ */
+public class MoveHintService {
+    private static final int CACHE_SIZE = 512;
+
+    private final BoardView board;
+    private final ExecutorService executor;
+    private final AtomicInteger generation = new AtomicInteger();
+    // Square -> value, filled in as the searches finish
+    private final Map<Key, Map<Integer, Double>> cache =
+        new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Map<Integer, Double>> eldest) {
+                return size() > CACHE_SIZE;
+            }
+        };
+
+    public MoveHintService(BoardView board) {
+        this.board = board;
+        this.executor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "move-hints");
+            t.setDaemon(true);
+            t.setPriority(Thread.MIN_PRIORITY);
+            return t;
+        });
+    }
+
+    /**
+     * Starts analysing the current position for the player to move. Call on the EDT.
+     */
+    public void analyse(Game game, int roll) {
+        int gen = generation.incrementAndGet();
+        board.clearMoveHints();
+
+        GameState position = game.getState(); // Exact, even with two pieces on Rebirth
+        Map<Integer, Double> values;
+        synchronized (cache) {
+            values = cache.computeIfAbsent(new Key(position, roll), k -> new ConcurrentHashMap<>());
+        }
+
+        // Search on a private copy so the game can change underneath
+        Game copy = Game.fromState(position, game.getStickThrow(), game.getBoard().getRules());
+        ComputerPlayer analyser = new ComputerPlayer(copy, copy.getCurrentPlayer());
+        analyser.setVerbose(false);
+
+        for (Piece piece : analyser.getMovablePieces(roll)) {
+            int square = piece.getPosition();
+            Double known = values.get(square);
+            if (known != null) {
+                board.setMoveHint(square, known);
+                continue;
+            }
+            board.setMoveHintPending(square);
+            executor.execute(() -> {
+                if (generation.get() != gen) return; // Position already left
+                double value = analyser.evaluateMove(piece, roll);
+                values.put(square, value);
+                SwingUtilities.invokeLater(() -> {
+                    if (generation.get() == gen) board.setMoveHint(square, value);
+                });
+            });
+        }
+    }
+
+    /**
+     * Drops the hints on screen and any analysis still queued. Call on the EDT.
+     */
+    public void clear() {
+        generation.incrementAndGet();
+        board.clearMoveHints();
+    }
+
+    public void shutdown() {
+        clear();
+        executor.shutdownNow();
+    }
+
+    private record Key(GameState position, int roll) {}
+}
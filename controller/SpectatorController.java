@@ -0,0 +1,151 @@
+package controller;
+
+import model.ComputerStrategy;
+import model.Game;
+import model.GameState;
+import view.BoardView;
+
+import javax.swing.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Computer-vs-computer games for watching at any speed. The game runs in a
+ * TurnPipeline with instant pacing on its own thread, sleeping between
+ * moves as the speed asks; at full speed it does not wait at all.
+ *
+ * The view never touches the game's Pieces: a Swing Timer reads the
+ * position Game publishes (Game.getState) at most FRAMES_PER_SECOND times a
+ * second and draws it if it changed, so positions reached between two
+ * frames are never drawn and a fast game costs the EDT no more than a slow one.
+ */
+public class SpectatorController {
+    public static final int FRAMES_PER_SECOND = 30;
+    public static final int MAX_SPEED = 0; // setSpeed: no wait between moves
+
+    private final Game game;
+    private final BoardView board;
+    private final TurnPipeline turns;
+    private final Timer frameTimer;
+    private JLabel statusLabel;
+    private JLabel player1Label;
+    private JLabel player2Label;
+    private Thread loop;
+    private volatile long nanosPerMove = TimeUnit.SECONDS.toNanos(1);
+    private volatile long moves = 0; // Written by the game thread only
+    private volatile int winner = 0;
+    private GameState shown; // Last position drawn; EDT only
+    private long framesMoves = 0; // Moves at the last rate sample; EDT only
+    private long framesStart = 0;
+    private double movesPerSecond = 0;
+
+    /**
+     * @param player1 Strategy playing as player 1
+     * @param player2 Strategy playing as player 2
+     */
+    public SpectatorController(Game game, BoardView board, ComputerStrategy player1, ComputerStrategy player2) {
+        this.game = game;
+        this.board = board;
+        this.turns = new TurnPipeline(game);
+        turns.setComputer(1, player1);
+        turns.setComputer(2, player2);
+        turns.setPacing(0, 0);
+        turns.setListener(new Pacing());
+        this.frameTimer = new Timer(1000 / FRAMES_PER_SECOND, e -> render());
+        frameTimer.setCoalesce(true);
+    }
+
+    public void setLabels(JLabel statusLabel, JLabel player1Label, JLabel player2Label) {
+        this.statusLabel = statusLabel;
+        this.player1Label = player1Label;
+        this.player2Label = player2Label;
+    }
+
+    /**
+     * @param movesPerSecond Moves to play each second, or MAX_SPEED for as many as the engines can
+     */
+    public void setSpeed(int movesPerSecond) {
+        nanosPerMove = movesPerSecond == MAX_SPEED ? 0 : TimeUnit.SECONDS.toNanos(1) / movesPerSecond;
+    }
+
+    /**
+     * Starts the game thread and the frame timer. Call on the EDT
+     */
+    public void start() {
+        if (loop != null) return;
+        loop = new Thread(() -> {
+            try {
+                turns.start();
+            } catch (CancellationException e) {
+                // stop() while the game was running
+            }
+        }, "spectator-game");
+        loop.setDaemon(true);
+        framesStart = System.nanoTime();
+        render();
+        frameTimer.start();
+        loop.start();
+    }
+
+    /**
+     * Ends the game thread after its current move and stops drawing
+     */
+    public void stop() {
+        frameTimer.stop();
+        if (loop != null) loop.interrupt();
+    }
+
+    private void render() {
+        int won = winner; // Read before the state: once set, the state is the final one
+        GameState state = game.getState();
+        long played = moves;
+        long now = System.nanoTime();
+        if (now - framesStart >= TimeUnit.SECONDS.toNanos(1)) {
+            movesPerSecond = (played - framesMoves) * 1e9 / (now - framesStart);
+            framesMoves = played;
+            framesStart = now;
+        }
+        if (state != shown) {
+            board.showState(state);
+            if (player1Label != null) player1Label.setText("Computer 1: " + state.getPlayer1Exited() + " pieces exited");
+            if (player2Label != null) player2Label.setText("Computer 2: " + state.getPlayer2Exited() + " pieces exited");
+            shown = state;
+        }
+        if (won != 0) frameTimer.stop();
+        if (statusLabel == null) return;
+        if (won != 0) {
+            statusLabel.setText("Computer " + won + " wins after " + played + " moves");
+        } else {
+            statusLabel.setText(String.format("Move %d, Computer %d to play (%.0f moves/s)",
+                    played, state.getCurrentPlayer(), movesPerSecond));
+        }
+    }
+
+    /**
+     * Counts moves and waits out each move's share of the speed, on the game thread
+     */
+    private class Pacing implements TurnPipeline.Listener {
+        private long next = System.nanoTime(); // When the next move may start
+
+        @Override
+        public void turnStarted(int player, boolean extraTurn) {
+            moves++;
+            long interval = nanosPerMove;
+            long now = System.nanoTime();
+            // Catch up after a slow search, but never by playing a burst of moves
+            next = Math.max(next + interval, now);
+            try {
+                if (next > now) TimeUnit.NANOSECONDS.sleep(next - now);
+            } catch (InterruptedException e) {
+                throw new CancellationException();
+            }
+            if (Thread.currentThread().isInterrupted()) throw new CancellationException();
+        }
+
+        @Override
+        public void gameOver(int winner) {
+            moves++;
+            SpectatorController.this.winner = winner;
+        }
+    }
+}
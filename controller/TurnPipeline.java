@@ -0,0 +1,257 @@
+package controller;
+
+import model.ComputerStrategy;
+import model.Game;
+import model.GameState;
+import model.Piece;
+import model.RuleTable;
+
+import javax.swing.*;
+
+/**
+ * Drives the turns of a game through one state machine:
+ *
+ *   ROLL      throw the sticks (a human player waits for roll())
+ *   CHOOSE    pick the piece to move (a human player waits for select()),
+ *             or pass when no piece can move
+ *   APPLY     Game.applyMove; a rejected human choice goes back to CHOOSE
+ *   TURN_END  game over, or the same player again (Game.keepsTurn), or the
+ *             next player
+ *   GAME_OVER nothing more happens
+ *
+ * Each player is a human or a ComputerStrategy, so computer-vs-computer
+ * games play themselves. Computer steps are paced by rollDelay (before a
+ * computer rolls) and moveDelay (between its roll and its move), run by a
+ * Swing Timer; with both delays 0 the steps run back to back in the calling
+ * thread at full engine speed, and no Swing class is needed.
+ *
+ * Not thread safe: with delays, call from the EDT only.
+ */
+public class TurnPipeline {
+    public static final int DEFAULT_ROLL_DELAY = 1000;
+    public static final int DEFAULT_MOVE_DELAY = 1500;
+
+    public enum Phase { ROLL, CHOOSE, APPLY, TURN_END, GAME_OVER }
+
+    /**
+     * What happened, for the view; called in the thread running the pipeline
+     */
+    public interface Listener {
+        default void rolled(int player, int roll) {}
+
+        /**
+         * @param flags Game.applyMove flags
+         */
+        default void moved(int player, Piece piece, int fromSquare, int flags) {}
+
+        /**
+         * A human player picked a piece Game.applyMove rejected; they choose again
+         */
+        default void rejected(int player, Piece piece, int flags) {}
+
+        default void passed(int player, int roll) {}
+
+        /**
+         * @param extraTurn The player moved last as well
+         */
+        default void turnStarted(int player, boolean extraTurn) {}
+
+        default void gameOver(int winner) {}
+    }
+
+    private final Game game;
+    private final ComputerStrategy[] computers = new ComputerStrategy[3]; // By player; null for a human
+    private Listener listener = new Listener() {};
+    private int rollDelay = DEFAULT_ROLL_DELAY;
+    private int moveDelay = DEFAULT_MOVE_DELAY;
+    private Phase phase = Phase.ROLL;
+    private int roll = 0;
+    private Piece chosen;
+    private int lastFlags = 0;
+    private Timer timer;
+    private boolean stepping = false; // Inside advance: roll/select from a listener are ignored
+
+    public TurnPipeline(Game game) {
+        this.game = game;
+    }
+
+    public void setListener(Listener listener) { this.listener = listener; }
+
+    /**
+     * @param computer Strategy playing for player, or null for a human
+     */
+    public void setComputer(int player, ComputerStrategy computer) { computers[player] = computer; }
+
+    public ComputerStrategy getComputer(int player) { return computers[player]; }
+
+    public boolean isComputer(int player) { return computers[player] != null; }
+
+    /**
+     * Milliseconds before a computer rolls and between its roll and its
+     * move; 0 and 0 for instant play
+     */
+    public void setPacing(int rollDelay, int moveDelay) {
+        if (rollDelay < 0 || moveDelay < 0) throw new IllegalArgumentException("Negative delay");
+        this.rollDelay = rollDelay;
+        this.moveDelay = moveDelay;
+    }
+
+    public Phase getPhase() { return phase; }
+
+    /**
+     * The current throw, 0 before the player to move has rolled
+     */
+    public int getRoll() { return roll; }
+
+    /**
+     * True while a human player is expected to roll
+     */
+    public boolean isWaitingForRoll() {
+        return phase == Phase.ROLL && !isComputer(game.getCurrentPlayer());
+    }
+
+    /**
+     * True while a human player is expected to pick a piece
+     */
+    public boolean isWaitingForMove() {
+        return phase == Phase.CHOOSE && !isComputer(game.getCurrentPlayer());
+    }
+
+    /**
+     * Starts play: a computer to move rolls after rollDelay. With instant
+     * pacing and two computers this returns when the game is over
+     */
+    public void start() {
+        if (phase == Phase.ROLL && isComputer(game.getCurrentPlayer())) schedule(rollDelay);
+    }
+
+    /**
+     * Stops a pending computer step; start resumes
+     */
+    public void stop() {
+        if (timer != null) timer.stop();
+        timer = null;
+    }
+
+    /**
+     * Rolls for the human player to move; ignored at any other time
+     */
+    public void roll() {
+        if (isWaitingForRoll()) advance();
+    }
+
+    /**
+     * Moves the human player's piece; ignored at any other time
+     */
+    public void select(Piece piece) {
+        if (!isWaitingForMove() || piece.getOwner() != game.getCurrentPlayer()) return;
+        chosen = piece;
+        phase = Phase.APPLY;
+        advance();
+    }
+
+    /**
+     * Runs steps until a human has to act, a delay is due or the game is over
+     */
+    private void advance() {
+        if (stepping) return;
+        stepping = true;
+        try {
+            int delay;
+            do {
+                delay = step();
+            } while (delay == 0);
+            if (delay > 0) schedule(delay);
+        } finally {
+            stepping = false;
+        }
+    }
+
+    /**
+     * Runs the current phase
+     * @return Delay before the next step, or -1 to wait for a human or for good
+     */
+    private int step() {
+        int player = game.getCurrentPlayer();
+        boolean computer = isComputer(player);
+        switch (phase) {
+            case ROLL -> {
+                roll = game.rollSticks();
+                phase = Phase.CHOOSE;
+                listener.rolled(player, roll);
+                if (computer) return moveDelay;
+                return hasMove(player) ? -1 : 0;
+            }
+            case CHOOSE -> {
+                // A human player gets here only without a move; a choice goes straight to APPLY
+                chosen = computer && hasMove(player) ? computers[player].makeMove(roll) : null;
+                if (chosen == null) return pass(player);
+                phase = Phase.APPLY;
+                return 0;
+            }
+            case APPLY -> {
+                int from = chosen.getPosition();
+                int flags = game.applyMove(chosen, roll);
+                if ((flags & Game.MOVE_REJECTED) != 0) {
+                    if (computer) return pass(player); // A strategy only offers legal moves; never stall on one
+                    phase = Phase.CHOOSE;
+                    listener.rejected(player, chosen, flags);
+                    return -1;
+                }
+                lastFlags = flags;
+                phase = Phase.TURN_END;
+                listener.moved(player, chosen, from, flags);
+                return 0;
+            }
+            case TURN_END -> {
+                roll = 0;
+                int winner = game.checkWinner();
+                if (winner != 0) {
+                    phase = Phase.GAME_OVER;
+                    listener.gameOver(winner);
+                    return -1;
+                }
+                boolean extraTurn = Game.keepsTurn(lastFlags);
+                if (!extraTurn) game.nextPlayer();
+                lastFlags = 0;
+                phase = Phase.ROLL;
+                listener.turnStarted(game.getCurrentPlayer(), extraTurn);
+                return isComputer(game.getCurrentPlayer()) ? rollDelay : -1;
+            }
+            default -> {
+                return -1;
+            }
+        }
+    }
+
+    private int pass(int player) {
+        listener.passed(player, roll);
+        phase = Phase.TURN_END;
+        return 0;
+    }
+
+    private boolean hasMove(int player) {
+        GameState state = game.getState();
+        RuleTable rules = game.getBoard().getRules();
+        for (Piece piece : game.getAllPieces()) {
+            if (piece.getOwner() == player && piece.getPosition() >= 0 && state.isLegal(piece.getPosition(), roll, rules)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void schedule(int delay) {
+        stop();
+        if (delay == 0) {
+            advance();
+            return;
+        }
+        timer = new Timer(delay, e -> {
+            timer = null;
+            advance();
+        });
+        timer.setRepeats(false);
+        timer.start();
+    }
+}
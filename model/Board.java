@@ -3,12 +3,24 @@ package model;
 public class Board {
     public static final int SIZE = 30;
 
+    private final RuleTable rules;
+
+    public Board() {
+        this(RuleTable.standard());
+    }
+
+    public Board(RuleTable rules) {
+        this.rules = rules;
+    }
+
+    public RuleTable getRules() { return rules; }
+
     public boolean isSafeCell(int index) {
-        return index == 25;
+        return index == rules.getHappinessSquare();
     }
 
     public boolean isSpecialCell(int index) {
-        return index >= 25;
+        return index >= rules.getHappinessSquare();
     }
     public int getCellEffect(int index, Piece piece) {
         switch (index) {
@@ -8,14 +8,43 @@ import java.util.logging.Level;
 
 /**
  * Computer player using Expectiminimax algorithm
- * Uses arithmetic mean at chance nodes (dice rolls)
+ * Chance nodes (stick throws) are weighted by the game's StickThrow model
  */
-public class ComputerPlayer {
+public class ComputerPlayer implements ComputerStrategy {
     private final Game game;
+    private final int aiPlayer; // Player this instance searches for (MAX)
     private final Random random = new Random();
-    private static final int MAX_DEPTH = 3; // Search depth for Expectiminimax
+    private static final int MAX_DEPTH = 3; // Default search depth for Expectiminimax
+    public static final double WIN_VALUE = 1_000_000.0; // Won position; finite, so chance nodes weigh it by probability
+    private int searchDepth = MAX_DEPTH;
+    private double lastBestValue = Double.NaN; // Value of the move chosen by the last makeMove
+    private long nodesSearched = 0;
+    private long nodeLimit = 0; // 0 = unlimited
+    private long deadline = 0; // System.nanoTime() to give up at, 0 = none
+    private volatile boolean stopRequested = false;
+    private boolean lastSearchAborted = false;
     private static final Logger logger = Logger.getLogger(ComputerPlayer.class.getName());
-    private static int calculationLogDepth = 0; // Track indentation for logging
+    private int calculationLogDepth = 0; // Track indentation for logging
+    private boolean verbose = true; // Log the calculation through the class logger
+    private final StickThrow stickThrow;
+    private final RuleTable rules;
+    private double chanceSkipMass = 0.0; // Probability mass of rolls a chance node may skip
+    private int[] chanceRolls; // Rolls expanded at chance nodes
+    private double[] chanceDivisors; // Total expanded probability / P(roll), per chanceRolls entry
+    private int sampledRolls = 0; // Throws sampled per chance node, 0 = expand the rolls above exactly
+    private int[][] sampleCounts; // [depth][roll]: times roll was drawn for the chance nodes at that depth
+    private double rootChanceHalfWidth; // 95% half-width of the last chance node right below the root
+    private List<MoveEstimate> lastMoveEstimates = new ArrayList<>();
+    private final MoveOrdering ordering = new MoveOrdering();
+    private boolean moveOrdering = true; // Sort moves at decision nodes below the root
+    private int tableSize = 1 << 16; // Transposition table entries, 0 = no table
+    private TranspositionTable table; // Kept across makeMove calls, allocated on first use
+    private SharedTranspositionTable sharedTable; // Used instead of the table above when set
+    private long sharedKeySalt; // Mixed into shared table keys: values depend on aiPlayer, the expanded rolls and the weights
+    private EvalWeights weights = EvalWeights.DEFAULT;
+    private SearchTreeExporter treeExporter; // Optional, records every searched node
+    private int exportParent = -1; // Node id of the node being expanded
+    private int exportMove = -1; // From-square of the move leading to the next child
     
     static {
         // Configure logger to output to console
@@ -33,7 +62,212 @@ public class ComputerPlayer {
     }
     
     public ComputerPlayer(Game game) {
+        this(game, 2);
+    }
+
+    /**
+     * @param aiPlayer Player to search for (1 or 2); values are from this player's point of view
+     */
+    public ComputerPlayer(Game game, int aiPlayer) {
         this.game = game;
+        this.aiPlayer = aiPlayer;
+        this.stickThrow = game.getStickThrow();
+        this.rules = game.getBoard().getRules();
+        setChanceSkipMass(0.0);
+    }
+
+    /**
+     * Lets chance nodes skip the least likely rolls as long as their total
+     * probability stays within maxSkippedMass. The remaining rolls are
+     * renormalised, so a chance value is off by at most maxSkippedMass times
+     * the spread of its roll values. 0 (the default) expands every roll.
+     */
+    public void setChanceSkipMass(double maxSkippedMass) {
+        if (maxSkippedMass < 0 || maxSkippedMass >= 1) {
+            throw new IllegalArgumentException("Skipped mass must be in [0, 1): " + maxSkippedMass);
+        }
+        this.chanceSkipMass = maxSkippedMass;
+        if (table != null) table.clear(); // Stored values depend on the expanded rolls
+        this.sharedKeySalt = TranspositionTable.nodeKey(Double.doubleToLongBits(maxSkippedMass), 0, 0, aiPlayer, 0, true)
+                ^ weights.fingerprint();
+        this.chanceRolls = stickThrow.rollsToExpand(maxSkippedMass);
+        double mass = 0.0;
+        for (int roll : chanceRolls) mass += stickThrow.probability(roll);
+        // Divide rather than multiply so the uniform model still computes value / 5.0 exactly
+        this.chanceDivisors = new double[chanceRolls.length];
+        for (int i = 0; i < chanceRolls.length; i++) {
+            chanceDivisors[i] = mass / stickThrow.probability(chanceRolls[i]);
+        }
+    }
+
+    public double getChanceSkipMass() { return chanceSkipMass; }
+
+    /**
+     * Sets the evaluation weights (EvalWeights.DEFAULT unless changed)
+     */
+    public void setEvalWeights(EvalWeights weights) {
+        this.weights = weights;
+        setChanceSkipMass(chanceSkipMass); // Clears the table and renews the shared key salt
+    }
+
+    public EvalWeights getEvalWeights() { return weights; }
+
+    /**
+     * Sparse sampling: each chance node averages over n throws drawn from the
+     * stick model instead of expanding every roll, so deeper searches fit in
+     * the same node budget. All chance nodes at the same depth of one search
+     * share the same draws (common random numbers), so sibling moves are
+     * compared under the same luck. A roll drawn several times is searched
+     * once. 0 (the default) searches exactly; chance skip mass only applies then.
+     */
+    public void setSampledRolls(int n) {
+        if (n < 0) throw new IllegalArgumentException("Sampled rolls must not be negative: " + n);
+        this.sampledRolls = n;
+    }
+
+    public int getSampledRolls() { return sampledRolls; }
+
+    /**
+     * Value of one root move from the last makeMove. halfWidth is the 95%
+     * confidence half-width from the throws sampled right below the root
+     * (sampling deeper in the tree is not included); 0 for exact searches.
+     */
+    public static final class MoveEstimate {
+        public final int square;
+        public final double value;
+        public final double halfWidth;
+
+        MoveEstimate(int square, double value, double halfWidth) {
+            this.square = square;
+            this.value = value;
+            this.halfWidth = halfWidth;
+        }
+    }
+
+    /**
+     * Every root move searched by the last makeMove, in search order
+     */
+    public List<MoveEstimate> getLastMoveEstimates() { return lastMoveEstimates; }
+
+    /**
+     * Turns the calculation log on or off for this instance (background analysis runs quietly)
+     */
+    public void setVerbose(boolean verbose) {
+        this.verbose = verbose;
+    }
+
+    @Override
+    public int getAiPlayer() { return aiPlayer; }
+
+    /**
+     * Sets the search depth (plies including the root move), 3 by default
+     */
+    public void setSearchDepth(int depth) {
+        if (depth < 1) throw new IllegalArgumentException("Search depth must be at least 1: " + depth);
+        this.searchDepth = depth;
+    }
+
+    public int getSearchDepth() { return searchDepth; }
+
+    /**
+     * True if a search value is a win whatever the throws (up to rounding in the chance nodes)
+     */
+    public static boolean isForcedWin(double value) { return value >= WIN_VALUE * (1 - 1e-12); }
+
+    public static boolean isForcedLoss(double value) { return value <= -WIN_VALUE * (1 - 1e-12); }
+
+    /**
+     * Expected value of the move chosen by the last makeMove call, NaN if it found none
+     */
+    @Override
+    public double getLastBestValue() { return lastBestValue; }
+
+    /**
+     * Nodes visited since the last resetNodeCount
+     */
+    public long getNodesSearched() { return nodesSearched; }
+
+    public void resetNodeCount() { nodesSearched = 0; }
+
+    /**
+     * Aborts a search once getNodesSearched exceeds maxNodes (0 = unlimited)
+     */
+    public void setNodeLimit(long maxNodes) { this.nodeLimit = maxNodes; }
+
+    /**
+     * Aborts a search once System.nanoTime() passes deadlineNanos (0 = none)
+     */
+    public void setDeadline(long deadlineNanos) { this.deadline = deadlineNanos; }
+
+    /**
+     * Aborts the running search from another thread; stays in effect until clearStop
+     */
+    public void requestStop() { stopRequested = true; }
+
+    public void clearStop() { stopRequested = false; }
+
+    /**
+     * True if the last makeMove hit a limit or stop request and returned null without a result
+     */
+    public boolean wasLastSearchAborted() { return lastSearchAborted; }
+
+    /**
+     * Searches killer moves, exits, swaps and Happiness landings first at
+     * decision nodes below the root (on by default). Values and the chosen
+     * move are the same either way; see getFirstMoveBestRate
+     */
+    public void setMoveOrdering(boolean enabled) { this.moveOrdering = enabled; }
+
+    /**
+     * Decision nodes with at least two moves since the last resetOrderingStats
+     */
+    public long getOrderedNodes() { return ordering.getOrderedNodes(); }
+
+    /**
+     * Share of those nodes whose first searched move was the best one, i.e.
+     * where a pruned search would cut off on the first move; NaN if none
+     */
+    public double getFirstMoveBestRate() { return ordering.getFirstMoveBestRate(); }
+
+    public void resetOrderingStats() { ordering.resetStats(); }
+
+    /**
+     * Sets the transposition table size in entries (16 bytes each), 65536 by
+     * default; 0 turns it off. The table keeps every fully searched chance
+     * node across makeMove calls, so later searches in the same game (such
+     * as the follow-up move after a 1, 3 or 5) reuse whatever they share with
+     * earlier ones instead of searching it again. Results are unchanged. Not
+     * used with sampled rolls or a tree exporter
+     */
+    public void setTableSize(int entries) {
+        if (entries < 0) throw new IllegalArgumentException("Table size must not be negative: " + entries);
+        this.tableSize = entries;
+        this.table = null;
+    }
+
+    /**
+     * Uses an off-heap table shared with other players (and threads) instead
+     * of this player's own table, or goes back to the own table when null.
+     * The players must use the same rules and stick model. Results are
+     * unchanged. Not used with sampled rolls or a tree exporter
+     */
+    public void setSharedTable(SharedTranspositionTable sharedTable) {
+        this.sharedTable = sharedTable;
+    }
+
+    /**
+     * Lookups and hits of this player's own transposition table over its
+     * lifetime; a shared table keeps its own statistics
+     */
+    public long getTableProbes() { return table == null ? 0 : table.getProbes(); }
+
+    public long getTableHits() { return table == null ? 0 : table.getHits(); }
+
+    /**
+     * Streams every node of subsequent searches to the exporter, or stops when null
+     */
+    public void setTreeExporter(SearchTreeExporter treeExporter) {
+        this.treeExporter = treeExporter;
     }
     
     /**
@@ -41,61 +275,165 @@ public class ComputerPlayer {
      * @param roll The dice roll value (1-5)
      * @return The piece that was moved, or null if no valid move
      */
+    @Override
     public Piece makeMove(int roll) {
-        List<Piece> computerPieces = getComputerPieces();
-        
-        // Filter pieces that can make valid moves
-        List<Piece> validPieces = new ArrayList<>();
-        for (Piece piece : computerPieces) {
-            if (piece.getPosition() < 0) continue; // Already exited
-            if (canMovePiece(piece, roll)) {
-                validPieces.add(piece);
-            }
-        }
+        GameSnapshot snapshot = new GameSnapshot(game); // The whole search reads this one published state
+        List<Integer> validPieces = movablePieces(snapshot, roll);
+        lastBestValue = Double.NaN;
+        lastSearchAborted = false;
+        lastMoveEstimates = new ArrayList<>();
         
         if (validPieces.isEmpty()) {
             return null; // No valid moves
         }
         
         // Use Expectiminimax to find best move
-        logger.info("=== Expectiminimax Calculation Start ===");
-        logger.info("Current roll: " + roll);
-        logger.info("Valid pieces to evaluate: " + validPieces.size());
+        if (logInfo()) {
+            logger.info("=== Expectiminimax Calculation Start ===");
+            logger.info("Current roll: " + roll);
+            logger.info("Valid pieces to evaluate: " + validPieces.size());
+        }
         
-        GameSnapshot snapshot = new GameSnapshot(game);
-        Piece bestPiece = null;
+        int bestPiece = -1;
         double bestValue = Double.NEGATIVE_INFINITY;
         
         calculationLogDepth = 0;
-        for (Piece piece : validPieces) {
-            GameSnapshot testSnapshot = new GameSnapshot(snapshot);
-            GameSnapshot.PieceSnapshot testPiece = findPieceInSnapshot(testSnapshot, piece);
-            
-            if (testPiece != null && simulateMove(testSnapshot, testPiece, roll, 2)) {
-                logger.info("Evaluating move: Piece at position " + piece.getPosition() + " -> " + (piece.getPosition() + roll));
-                double value = expectiminimax(testSnapshot, 2, MAX_DEPTH - 1, false);
-                logger.info("Move evaluation result: " + String.format("%.2f", value));
-                if (value > bestValue) {
-                    bestValue = value;
-                    bestPiece = piece;
-                    logger.info("New best move found! Value: " + String.format("%.2f", bestValue));
+        drawSamples();
+        ordering.newSearch(searchDepth);
+        List<MoveEstimate> estimates = new ArrayList<>();
+        int rootId = -1;
+        if (treeExporter != null) {
+            rootId = treeExporter.nextNodeId();
+            exportParent = rootId;
+        }
+        try {
+            for (int piece : validPieces) {
+                int square = snapshot.getPieces().get(piece).getPosition();
+                GameSnapshot testSnapshot = new GameSnapshot(snapshot);
+                GameSnapshot.PieceSnapshot testPiece = testSnapshot.getPieces().get(piece);
+                
+                int flags = simulateMove(testSnapshot, testPiece, roll, aiPlayer);
+                if ((flags & Game.MOVE_REJECTED) == 0) {
+                    if (logInfo()) logger.info("Evaluating move: Piece at position " + square + " -> " + (square + roll));
+                    exportMove = square;
+                    rootChanceHalfWidth = 0.0;
+                    int nextPlayer = Game.keepsTurn(flags) ? aiPlayer : ((aiPlayer == 1) ? 2 : 1);
+                    double value = expectiminimax(testSnapshot, nextPlayer, searchDepth - 1, nextPlayer == aiPlayer);
+                    estimates.add(new MoveEstimate(square, value, rootChanceHalfWidth));
+                    if (logInfo()) logger.info("Move evaluation result: " + String.format("%.2f", value)
+                            + (sampledRolls > 0 ? " ± " + String.format("%.2f", rootChanceHalfWidth) : ""));
+                    if (value > bestValue) {
+                        bestValue = value;
+                        bestPiece = piece;
+                        if (logInfo()) logger.info("New best move found! Value: " + String.format("%.2f", bestValue));
+                    }
                 }
             }
+        } catch (SearchAborted e) {
+            if (logInfo()) logger.info("=== Search aborted after " + nodesSearched + " nodes ===\n");
+            lastSearchAborted = true;
+            exportParent = -1;
+            return null;
+        }
+        
+        if (bestPiece >= 0) lastBestValue = bestValue;
+        lastMoveEstimates = estimates;
+        if (treeExporter != null) {
+            treeExporter.node(rootId, -1, SearchTreeExporter.MAX, roll, -1, bestValue);
+            exportParent = -1;
         }
         
-        if (bestPiece != null) {
-            logger.info("=== Best Move Selected ===");
-            logger.info("Piece at position: " + bestPiece.getPosition());
-            logger.info("Target position: " + (bestPiece.getPosition() + roll));
-            logger.info("Expected value: " + String.format("%.2f", bestValue));
+        if (bestPiece >= 0) {
+            if (logInfo()) {
+                int square = snapshot.getPieces().get(bestPiece).getPosition();
+                logger.info("=== Best Move Selected ===");
+                logger.info("Piece at position: " + square);
+                logger.info("Target position: " + (square + roll));
+                logger.info("Expected value: " + String.format("%.2f", bestValue));
+            }
         } else {
-            logger.info("=== No Valid Move Found - Turn Skipped ===");
+            if (logInfo()) logger.info("=== No Valid Move Found - Turn Skipped ===");
         }
-        logger.info("=== Expectiminimax Calculation End ===\n");
+        if (logInfo()) logger.info("=== Expectiminimax Calculation End ===\n");
         
-        return bestPiece;
+        return bestPiece < 0 ? null : game.getAllPieces().get(bestPiece);
+    }
+    
+    /**
+     * Pieces of this player that can legally move with the given roll, in the game's published state
+     */
+    public List<Piece> getMovablePieces(int roll) {
+        List<Piece> pieces = game.getAllPieces();
+        List<Piece> validPieces = new ArrayList<>();
+        for (int piece : movablePieces(new GameSnapshot(game), roll)) {
+            validPieces.add(pieces.get(piece));
+        }
+        return validPieces;
     }
     
+    /**
+     * Indices (as in Game.getAllPieces) of this player's pieces that can move with the roll
+     */
+    private List<Integer> movablePieces(GameSnapshot snapshot, int roll) {
+        List<Integer> validPieces = new ArrayList<>();
+        List<GameSnapshot.PieceSnapshot> pieces = snapshot.getPieces();
+        for (int i = 0; i < pieces.size(); i++) {
+            GameSnapshot.PieceSnapshot piece = pieces.get(i);
+            if (piece.getOwner() == aiPlayer && canMovePieceInSnapshot(snapshot, piece, roll)) {
+                validPieces.add(i);
+            }
+        }
+        return validPieces;
+    }
+    
+    /**
+     * Expected value of moving one piece, as makeMove scores it
+     * @return The value from this player's point of view, or NaN if the piece cannot move
+     */
+    public double evaluateMove(Piece piece, int roll) {
+        int index = game.getAllPieces().indexOf(piece);
+        GameSnapshot snapshot = new GameSnapshot(game);
+        if (index < 0 || piece.getOwner() != aiPlayer
+                || !canMovePieceInSnapshot(snapshot, snapshot.getPieces().get(index), roll)) {
+            return Double.NaN;
+        }
+        GameSnapshot testSnapshot = new GameSnapshot(snapshot);
+        GameSnapshot.PieceSnapshot testPiece = testSnapshot.getPieces().get(index);
+        int flags = simulateMove(testSnapshot, testPiece, roll, aiPlayer);
+        if ((flags & Game.MOVE_REJECTED) != 0) {
+            return Double.NaN;
+        }
+        calculationLogDepth = 0;
+        drawSamples();
+        ordering.newSearch(searchDepth);
+        int nextPlayer = Game.keepsTurn(flags) ? aiPlayer : ((aiPlayer == 1) ? 2 : 1);
+        return expectiminimax(testSnapshot, nextPlayer, searchDepth - 1, nextPlayer == aiPlayer);
+    }
+
+    /**
+     * Draws the throws every chance node of the coming search will use, per depth
+     */
+    private void drawSamples() {
+        if (sampledRolls == 0) return;
+        sampleCounts = new int[searchDepth][StickThrow.MAX_ROLL + 1];
+        for (int depth = 1; depth < searchDepth; depth++) {
+            for (int i = 0; i < sampledRolls; i++) {
+                sampleCounts[depth][stickThrow.roll(random)]++;
+            }
+        }
+    }
+    
+    private double sharedExpectiminimax(GameSnapshot snapshot, int player, int depth, boolean isMaxNode) {
+        long key = TranspositionTable.nodeKey(snapshot.piecesKey(), snapshot.getPlayer1Exited(),
+                snapshot.getPlayer2Exited(), player, depth, isMaxNode) ^ sharedKeySalt;
+        if (key == 0) key = 1; // An empty entry reads as key 0
+        double value = sharedTable.probe(key);
+        if (!Double.isNaN(value)) return value;
+        value = expectiminimaxNode(snapshot, player, depth, isMaxNode);
+        sharedTable.store(key, value);
+        return value;
+    }
+
     /**
      * Expectiminimax algorithm
      * @param snapshot Current game state
@@ -105,54 +443,91 @@ public class ComputerPlayer {
      * @return Expected value of the position
      */
     private double expectiminimax(GameSnapshot snapshot, int player, int depth, boolean isMaxNode) {
+        if (treeExporter == null) {
+            if (depth == 0 || sampledRolls > 0 || (tableSize == 0 && sharedTable == null)) {
+                return expectiminimaxNode(snapshot, player, depth, isMaxNode);
+            }
+            if (sharedTable != null) return sharedExpectiminimax(snapshot, player, depth, isMaxNode);
+            if (table == null) table = new TranspositionTable(tableSize);
+            long key = TranspositionTable.nodeKey(snapshot.piecesKey(), snapshot.getPlayer1Exited(),
+                    snapshot.getPlayer2Exited(), player, depth, isMaxNode);
+            int slot = table.find(key);
+            if (slot >= 0) return table.value(slot);
+            double value = expectiminimaxNode(snapshot, player, depth, isMaxNode);
+            table.store(key, value);
+            return value;
+        }
+        int parent = exportParent;
+        int move = exportMove;
+        int id = treeExporter.nextNodeId();
+        exportParent = id;
+        double value = expectiminimaxNode(snapshot, player, depth, isMaxNode);
+        exportParent = parent;
+        byte type = depth == 0 || snapshot.checkWinner() != 0 ? SearchTreeExporter.LEAF : SearchTreeExporter.CHANCE;
+        treeExporter.node(id, parent, type, -1, move, value);
+        return value;
+    }
+    
+    private double expectiminimaxNode(GameSnapshot snapshot, int player, int depth, boolean isMaxNode) {
+        countNode();
         String indent = "  ".repeat(calculationLogDepth);
         String nodeType = isMaxNode ? "MAX" : "MIN";
-        String playerName = player == 2 ? "Computer" : "Player";
+        String playerName = player == aiPlayer ? "Computer" : "Player";
         
         // Terminal conditions
         int winner = snapshot.checkWinner();
-        if (winner == 2) {
-            logger.fine(indent + "Terminal: Computer wins (INFINITY)");
-            return Double.POSITIVE_INFINITY; // Computer wins
+        if (winner == aiPlayer) {
+            if (logFine()) logger.fine(indent + "Terminal: Computer wins (WIN_VALUE)");
+            return WIN_VALUE; // Computer wins
         }
-        if (winner == 1) {
-            logger.fine(indent + "Terminal: Player wins (-INFINITY)");
-            return Double.NEGATIVE_INFINITY; // Opponent wins
+        if (winner != 0) {
+            if (logFine()) logger.fine(indent + "Terminal: Player wins (-WIN_VALUE)");
+            return -WIN_VALUE; // Opponent wins
         }
         if (depth == 0) {
             double eval = evaluatePosition(snapshot);
-            logger.fine(indent + "Leaf node evaluation: " + String.format("%.2f", eval));
+            if (logFine()) logger.fine(indent + "Leaf node evaluation: " + String.format("%.2f", eval));
             return eval;
         }
         
-        // Chance node: dice roll (all rolls have equal probability 1/5)
+        if (sampledRolls > 0) {
+            return sampledChance(snapshot, player, depth, isMaxNode);
+        }
+        
+        // Chance node: stick throw, weighted by the stick model
         if (depth > 0) {
-            logger.fine(indent + "CHANCE node (Depth: " + depth + ", Player: " + playerName + ")");
-            logger.fine(indent + "Calculating arithmetic mean over all possible rolls (1-5, each with probability 1/5)");
+            if (logFine()) {
+                logger.fine(indent + "CHANCE node (Depth: " + depth + ", Player: " + playerName + ")");
+                logger.fine(indent + "Calculating weighted mean over " + chanceRolls.length + " rolls (" + stickThrow + " model)");
+            }
             
             double expectedValue = 0.0;
-            double[] rollValues = new double[5];
+            double[] rollValues = new double[chanceRolls.length];
             
             calculationLogDepth++;
-            for (int roll = 1; roll <= 5; roll++) {
+            for (int i = 0; i < chanceRolls.length; i++) {
+                int roll = chanceRolls[i];
                 double rollValue = expectiminimaxWithRoll(snapshot, player, roll, depth, isMaxNode);
-                rollValues[roll - 1] = rollValue;
-                expectedValue += rollValue / 5.0; // Arithmetic mean (equal probability)
-                logger.fine(indent + "  Roll " + roll + ": value = " + String.format("%.2f", rollValue) + 
-                           ", contribution = " + String.format("%.2f", rollValue / 5.0));
+                rollValues[i] = rollValue;
+                expectedValue += rollValue / chanceDivisors[i];
+                if (logFine()) logger.fine(indent + "  Roll " + roll + ": value = " + String.format("%.2f", rollValue) + 
+                           ", contribution = " + String.format("%.2f", rollValue / chanceDivisors[i]));
             }
             calculationLogDepth--;
             
-            // Log the arithmetic calculation
-            logger.info(indent + "Arithmetic Mean Calculation (CHANCE node):");
-            logger.info(indent + "  E[Value] = (1/5) * [");
-            for (int i = 0; i < 5; i++) {
-                logger.info(indent + "    Roll " + (i + 1) + ": " + String.format("%.2f", rollValues[i]) + 
-                           (i < 4 ? " +" : ""));
-            }
-            logger.info(indent + "  ]");
-            logger.info(indent + "  Expected Value = " + String.format("%.2f", expectedValue) + 
-                       " (arithmetic mean of all possible rolls)");
+            // Log the weighted calculation
+            if (logInfo()) {
+                logger.info(indent + "Weighted Mean Calculation (CHANCE node):");
+                logger.info(indent + "  E[Value] = sum of P(roll) * value [");
+                for (int i = 0; i < chanceRolls.length; i++) {
+                    logger.info(indent + "    Roll " + chanceRolls[i] + " (P = " + 
+                               String.format("%.4f", 1.0 / chanceDivisors[i]) + "): " + 
+                               String.format("%.2f", rollValues[i]) + (i < chanceRolls.length - 1 ? " +" : ""));
+                }
+                logger.info(indent + "  ]");
+                logger.info(indent + "  Expected Value = " + String.format("%.2f", expectedValue) + 
+                           " (probability-weighted mean of possible rolls)");
+            }
             
             return expectedValue;
         }
@@ -160,10 +535,56 @@ public class ComputerPlayer {
         return evaluatePosition(snapshot);
     }
     
+    /**
+     * Chance node in sparse sampling mode: mean over the throws drawn for this depth
+     */
+    private double sampledChance(GameSnapshot snapshot, int player, int depth, boolean isMaxNode) {
+        int[] counts = sampleCounts[depth];
+        double[] rollValues = new double[StickThrow.MAX_ROLL + 1];
+        double sum = 0.0;
+        calculationLogDepth++;
+        for (int roll = StickThrow.MIN_ROLL; roll <= StickThrow.MAX_ROLL; roll++) {
+            if (counts[roll] == 0) continue;
+            rollValues[roll] = expectiminimaxWithRoll(snapshot, player, roll, depth, isMaxNode);
+            sum += counts[roll] * rollValues[roll];
+        }
+        calculationLogDepth--;
+        double mean = sum / sampledRolls;
+        
+        if (depth == searchDepth - 1 && sampledRolls > 1 && Double.isFinite(mean)) {
+            // Only the chance node right below the root reaches here
+            double squares = 0.0;
+            for (int roll = StickThrow.MIN_ROLL; roll <= StickThrow.MAX_ROLL; roll++) {
+                double d = rollValues[roll] - mean;
+                if (counts[roll] > 0) squares += counts[roll] * d * d;
+            }
+            rootChanceHalfWidth = 1.96 * Math.sqrt(squares / (sampledRolls - 1) / sampledRolls);
+        }
+        if (logFine()) {
+            logger.fine("  ".repeat(calculationLogDepth) + "Sampled CHANCE node (Depth: " + depth + "): mean of "
+                    + sampledRolls + " throws = " + String.format("%.2f", mean));
+        }
+        return mean;
+    }
+    
     /**
      * Handle a specific dice roll at a chance node
      */
     private double expectiminimaxWithRoll(GameSnapshot snapshot, int player, int roll, int depth, boolean isMaxNode) {
+        if (treeExporter == null) {
+            return expectiminimaxRollNode(snapshot, player, roll, depth, isMaxNode);
+        }
+        int parent = exportParent;
+        int id = treeExporter.nextNodeId();
+        exportParent = id;
+        double value = expectiminimaxRollNode(snapshot, player, roll, depth, isMaxNode);
+        exportParent = parent;
+        treeExporter.node(id, parent, isMaxNode ? SearchTreeExporter.MAX : SearchTreeExporter.MIN, roll, -1, value);
+        return value;
+    }
+    
+    private double expectiminimaxRollNode(GameSnapshot snapshot, int player, int roll, int depth, boolean isMaxNode) {
+        countNode();
         List<GameSnapshot.PieceSnapshot> playerPieces = snapshot.getPlayerPieces(player);
         List<Move> validMoves = new ArrayList<>();
         
@@ -175,56 +596,168 @@ public class ComputerPlayer {
             }
         }
         
+        if (moveOrdering && validMoves.size() > 1) {
+            orderMoves(snapshot, validMoves, depth);
+        }
+        
         // If no valid moves, evaluate current position and switch player
         if (validMoves.isEmpty()) {
+            int nextPlayer = (player == 1) ? 2 : 1;
             GameSnapshot nextSnapshot = new GameSnapshot(snapshot);
-            nextSnapshot.currentPlayer = (player == 1) ? 2 : 1;
-            return expectiminimax(nextSnapshot, (player == 1) ? 2 : 1, depth - 1, !isMaxNode);
+            nextSnapshot.currentPlayer = nextPlayer;
+            exportMove = -1;
+            return expectiminimax(nextSnapshot, nextPlayer, depth - 1, nextPlayer == aiPlayer);
         }
         
         // MAX node (computer's turn)
         if (isMaxNode) {
             String indent = "  ".repeat(calculationLogDepth);
-            logger.fine(indent + "MAX node: Evaluating " + validMoves.size() + " moves for roll " + roll);
+            if (logFine()) logger.fine(indent + "MAX node: Evaluating " + validMoves.size() + " moves for roll " + roll);
             double maxValue = Double.NEGATIVE_INFINITY;
+            double firstValue = Double.NaN;
+            boolean firstMove = true;
+            Move bestMove = null;
             for (Move move : validMoves) {
                 GameSnapshot testSnapshot = new GameSnapshot(snapshot);
                 GameSnapshot.PieceSnapshot testPiece = findPieceInSnapshot(testSnapshot, move.piece);
-                if (testPiece != null && simulateMove(testSnapshot, testPiece, move.roll, player)) {
-                    int nextPlayer = (move.roll == 1 || move.roll == 3 || move.roll == 5) ? player : ((player == 1) ? 2 : 1);
-                    double value = expectiminimax(testSnapshot, nextPlayer, depth - 1, false);
-                    logger.fine(indent + "  Move (pos " + move.piece.getPosition() + " -> " + 
+                int flags = testPiece == null ? Game.MOVE_REJECTED : simulateMove(testSnapshot, testPiece, move.roll, player);
+                if ((flags & Game.MOVE_REJECTED) == 0) {
+                    int nextPlayer = Game.keepsTurn(flags) ? player : ((player == 1) ? 2 : 1);
+                    exportMove = move.piece.getPosition();
+                    double value = expectiminimax(testSnapshot, nextPlayer, depth - 1, nextPlayer == aiPlayer);
+                    if (logFine()) logger.fine(indent + "  Move (pos " + move.piece.getPosition() + " -> " + 
                                (move.piece.getPosition() + move.roll) + "): value = " + String.format("%.2f", value));
+                    if (firstMove) {
+                        firstValue = value;
+                        firstMove = false;
+                    }
+                    if (value > maxValue) bestMove = move;
                     maxValue = Math.max(maxValue, value);
                 }
             }
-            logger.fine(indent + "MAX result: " + String.format("%.2f", maxValue));
+            recordBest(validMoves, bestMove, depth, firstValue == maxValue);
+            if (logFine()) logger.fine(indent + "MAX result: " + String.format("%.2f", maxValue));
             return maxValue;
         } 
         // MIN node (opponent's turn)
         else {
             String indent = "  ".repeat(calculationLogDepth);
-            logger.fine(indent + "MIN node: Evaluating " + validMoves.size() + " moves for roll " + roll);
+            if (logFine()) logger.fine(indent + "MIN node: Evaluating " + validMoves.size() + " moves for roll " + roll);
             double minValue = Double.POSITIVE_INFINITY;
+            double firstValue = Double.NaN;
+            boolean firstMove = true;
+            Move bestMove = null;
             for (Move move : validMoves) {
                 GameSnapshot testSnapshot = new GameSnapshot(snapshot);
                 GameSnapshot.PieceSnapshot testPiece = findPieceInSnapshot(testSnapshot, move.piece);
-                if (testPiece != null && simulateMove(testSnapshot, testPiece, move.roll, player)) {
-                    int nextPlayer = (move.roll == 1 || move.roll == 3 || move.roll == 5) ? player : ((player == 1) ? 2 : 1);
-                    double value = expectiminimax(testSnapshot, nextPlayer, depth - 1, true);
-                    logger.fine(indent + "  Move (pos " + move.piece.getPosition() + " -> " + 
+                int flags = testPiece == null ? Game.MOVE_REJECTED : simulateMove(testSnapshot, testPiece, move.roll, player);
+                if ((flags & Game.MOVE_REJECTED) == 0) {
+                    int nextPlayer = Game.keepsTurn(flags) ? player : ((player == 1) ? 2 : 1);
+                    exportMove = move.piece.getPosition();
+                    double value = expectiminimax(testSnapshot, nextPlayer, depth - 1, nextPlayer == aiPlayer);
+                    if (logFine()) logger.fine(indent + "  Move (pos " + move.piece.getPosition() + " -> " + 
                                (move.piece.getPosition() + move.roll) + "): value = " + String.format("%.2f", value));
+                    if (firstMove) {
+                        firstValue = value;
+                        firstMove = false;
+                    }
+                    if (value < minValue) bestMove = move;
                     minValue = Math.min(minValue, value);
                 }
             }
-            logger.fine(indent + "MIN result: " + String.format("%.2f", minValue));
+            recordBest(validMoves, bestMove, depth, firstValue == minValue);
+            if (logFine()) logger.fine(indent + "MIN result: " + String.format("%.2f", minValue));
             return minValue;
         }
     }
     
+    /**
+     * Perft under the search's own move generation (canMovePieceInSnapshot,
+     * simulateMove, extra turns by Game.keepsTurn): leaf positions after depth throws
+     * from the game's position, every roll expanded, a pass when no piece can
+     * move. A won position is a leaf. Moves are counted once per square, so
+     * two pieces sharing Rebirth make one move.
+     */
+    long perft(int depth) {
+        GameSnapshot snapshot = new GameSnapshot(game);
+        return perft(snapshot, snapshot.getCurrentPlayer(), depth);
+    }
+
+    private long perft(GameSnapshot snapshot, int player, int depth) {
+        if (depth == 0 || snapshot.checkWinner() != 0) return 1;
+        long leaves = 0;
+        for (int roll = StickThrow.MIN_ROLL; roll <= StickThrow.MAX_ROLL; roll++) {
+            boolean moved = false;
+            boolean[] tried = new boolean[Board.SIZE];
+            for (GameSnapshot.PieceSnapshot piece : snapshot.getPlayerPieces(player)) {
+                if (piece.getPosition() < 0 || tried[piece.getPosition()]) continue;
+                tried[piece.getPosition()] = true;
+                if (!canMovePieceInSnapshot(snapshot, piece, roll)) continue;
+                GameSnapshot next = new GameSnapshot(snapshot);
+                GameSnapshot.PieceSnapshot nextPiece = findPieceInSnapshot(next, piece);
+                int flags = nextPiece == null ? Game.MOVE_REJECTED : simulateMove(next, nextPiece, roll, player);
+                if ((flags & Game.MOVE_REJECTED) == 0) {
+                    moved = true;
+                    int nextPlayer = Game.keepsTurn(flags) ? player : ((player == 1) ? 2 : 1);
+                    leaves += perft(next, nextPlayer, depth - 1);
+                }
+            }
+            if (!moved) leaves += perft(snapshot, (player == 1) ? 2 : 1, depth - 1);
+        }
+        return leaves;
+    }
+
+    /**
+     * Positions the search reaches from the game's position with this roll,
+     * one per square a legal move starts from, or a single pass
+     */
+    List<Perft.Successor> perftSuccessors(int roll) {
+        GameSnapshot snapshot = new GameSnapshot(game);
+        int player = snapshot.getCurrentPlayer();
+        List<Perft.Successor> successors = new ArrayList<>();
+        boolean[] tried = new boolean[Board.SIZE];
+        for (GameSnapshot.PieceSnapshot piece : snapshot.getPlayerPieces(player)) {
+            if (piece.getPosition() < 0 || tried[piece.getPosition()]) continue;
+            tried[piece.getPosition()] = true;
+            if (!canMovePieceInSnapshot(snapshot, piece, roll)) continue;
+            GameSnapshot next = new GameSnapshot(snapshot);
+            GameSnapshot.PieceSnapshot nextPiece = findPieceInSnapshot(next, piece);
+            int flags = nextPiece == null ? Game.MOVE_REJECTED : simulateMove(next, nextPiece, roll, player);
+            if ((flags & Game.MOVE_REJECTED) == 0) {
+                int nextPlayer = Game.keepsTurn(flags) ? player : ((player == 1) ? 2 : 1);
+                successors.add(new Perft.Successor(piece.getPosition(), next.toState(nextPlayer)));
+            }
+        }
+        if (successors.isEmpty()) successors.add(new Perft.Successor(-1, snapshot.toState((player == 1) ? 2 : 1)));
+        return successors;
+    }
+
+    /**
+     * Sorts the moves of a decision node, most promising first
+     */
+    private void orderMoves(GameSnapshot snapshot, List<Move> moves, int depth) {
+        for (Move move : moves) {
+            int pos = move.piece.getPosition();
+            int rule = RuleTable.index(pos, move.roll, move.piece.canExitNextTurn());
+            int flags = rules.flags(rule);
+            int landing = rules.landing(rule);
+            GameSnapshot.PieceSnapshot occupyingPiece = landing >= 0 ? snapshot.getPieceAt(landing) : null;
+            boolean swap = occupyingPiece != null && occupyingPiece.getOwner() != move.piece.getOwner();
+            int target = (flags & RuleTable.EXIT) != 0 ? -1 : rules.target(rule);
+            move.order = ordering.score(depth, pos, move.roll, flags, target, swap, rules.getHappinessSquare());
+        }
+        moves.sort((a, b) -> Integer.compare(b.order, a.order));
+    }
+    
+    private void recordBest(List<Move> moves, Move bestMove, int depth, boolean firstWasBest) {
+        if (moves.size() > 1 && bestMove != null) {
+            ordering.recordBest(depth, bestMove.piece.getPosition(), bestMove.roll, firstWasBest);
+        }
+    }
+    
     /**
      * Evaluate the current board position
-     * Positive values favor computer (player 2), negative favor opponent (player 1)
+     * Positive values favor this player, negative favor the opponent
      */
     private double evaluatePosition(GameSnapshot snapshot) {
         double score = 0.0;
@@ -235,45 +768,33 @@ public class ComputerPlayer {
         
         // Exited pieces (highest priority)
         int exitedDiff = snapshot.getPlayer2Exited() - snapshot.getPlayer1Exited();
-        exitedScore = exitedDiff * 1000.0;
+        exitedScore = exitedDiff * weights.exited();
         score += exitedScore;
         
         // Position of pieces on board
         for (GameSnapshot.PieceSnapshot piece : snapshot.getPieces()) {
             if (piece.getPosition() < 0) continue; // Already exited
             
-            double pieceValue = piece.getPosition();
+            double pieceValue = piece.getPosition() * weights.progress();
             if (piece.getOwner() == 2) {
                 positionScore += pieceValue; // Computer pieces closer to exit are good
             } else {
                 positionScore -= pieceValue; // Opponent pieces closer to exit are bad
             }
             
-            // Special houses bonus
-            int houseNum = piece.getPosition() + 1;
+            // Special houses bonus (Happiness, Three Truths, Re-Atoum, Horus; Water is a penalty)
+            double houseBonus = weights.houseBonus(piece.getPosition());
             if (piece.getOwner() == 2) {
-                switch (houseNum) {
-                    case 26 -> specialHouseScore += 50; // House of Happiness
-                    case 28 -> specialHouseScore += 40; // Three Truths
-                    case 29 -> specialHouseScore += 40; // Re-Atoum
-                    case 30 -> specialHouseScore += 50; // Horus
-                }
-                if (houseNum == 27) specialHouseScore -= 20; // Avoid House of Water
+                specialHouseScore += houseBonus;
             } else {
-                switch (houseNum) {
-                    case 26 -> specialHouseScore -= 50;
-                    case 28 -> specialHouseScore -= 40;
-                    case 29 -> specialHouseScore -= 40;
-                    case 30 -> specialHouseScore -= 50;
-                }
-                if (houseNum == 27) specialHouseScore += 20;
+                specialHouseScore -= houseBonus;
             }
             
             // Can exit next turn bonus
             if (piece.canExitNextTurn() && piece.getOwner() == 2) {
-                exitBonusScore += 30;
+                exitBonusScore += weights.exitFlag();
             } else if (piece.canExitNextTurn() && piece.getOwner() == 1) {
-                exitBonusScore -= 30;
+                exitBonusScore -= weights.exitFlag();
             }
         }
         
@@ -281,53 +802,62 @@ public class ComputerPlayer {
         
         // Log evaluation breakdown
         String indent = "  ".repeat(calculationLogDepth);
-        logger.fine(indent + "Position Evaluation:");
-        logger.fine(indent + "  Exited pieces: " + exitedDiff + " * 1000 = " + String.format("%.2f", exitedScore));
-        logger.fine(indent + "  Position score: " + String.format("%.2f", positionScore));
-        logger.fine(indent + "  Special houses: " + String.format("%.2f", specialHouseScore));
-        logger.fine(indent + "  Exit bonus: " + String.format("%.2f", exitBonusScore));
-        logger.fine(indent + "  Total: " + String.format("%.2f", score));
+        if (logFine()) {
+            logger.fine(indent + "Position Evaluation:");
+            logger.fine(indent + "  Exited pieces: " + exitedDiff + " * " + weights.exited() + " = " + String.format("%.2f", exitedScore));
+            logger.fine(indent + "  Position score: " + String.format("%.2f", positionScore));
+            logger.fine(indent + "  Special houses: " + String.format("%.2f", specialHouseScore));
+            logger.fine(indent + "  Exit bonus: " + String.format("%.2f", exitBonusScore));
+            logger.fine(indent + "  Total: " + String.format("%.2f", score));
+        }
         
-        return score;
+        // Scores above are from player 2's side
+        return aiPlayer == 2 ? score : -score;
     }
     
     /**
      * Simulate a move on a snapshot (without affecting actual game)
+     * @return RuleTable flags of the transition, plus Game.MOVE_REJECTED if the piece could not move
      */
-    private boolean simulateMove(GameSnapshot snapshot, GameSnapshot.PieceSnapshot piece, int roll, int player) {
+    private int simulateMove(GameSnapshot snapshot, GameSnapshot.PieceSnapshot piece, int roll, int player) {
         int pos = piece.getPosition();
-        if (pos < 0) return false;
+        if (pos < 0) return Game.MOVE_REJECTED;
         
-        // Handle special exit conditions
-        if (piece.canExitNextTurn()) {
-            int houseNum = pos + 1;
-            if (houseNum == 28 && roll != 3) {
-                piece.setPosition(14);
-                piece.setCanExitNextTurn(false);
-                return true;
-            }
-            if (houseNum == 29 && roll != 2) {
-                piece.setPosition(14);
-                piece.setCanExitNextTurn(false);
-                return true;
-            }
-            if (houseNum == 30) {
-                piece.setCanExitNextTurn(false);
-            }
-        }
+        int rule = RuleTable.index(pos, roll, piece.canExitNextTurn());
+        int flags = rules.flags(rule);
         
-        int targetPos = pos + roll;
+        // Failed to leave an exit-gated house
+        if ((flags & RuleTable.GATE_FAILED) != 0) {
+            piece.setPosition(rules.target(rule));
+            piece.setCanExitNextTurn(false);
+            return flags;
+        }
+        if ((flags & RuleTable.CLEARS_EXIT_FLAG) != 0) {
+            piece.setCanExitNextTurn(false);
+        }
         
         // House of Happiness rule
-        if (pos < 25 && targetPos > 25) {
-            return false;
+        if ((flags & RuleTable.BLOCKED) != 0) {
+            return flags | Game.MOVE_REJECTED;
+        }
+        
+        // Exit piece
+        if ((flags & RuleTable.EXIT) != 0) {
+            piece.setPosition(-1);
+            if (player == 1) {
+                snapshot.player1Exited++;
+            } else {
+                snapshot.player2Exited++;
+            }
+            return flags;
         }
         
         // Collision handling
-        GameSnapshot.PieceSnapshot occupyingPiece = snapshot.getPieceAt(targetPos);
+        int landing = rules.landing(rule);
+        GameSnapshot.PieceSnapshot occupyingPiece = snapshot.getPieceAt(landing);
         if (occupyingPiece != null) {
             if (occupyingPiece.getOwner() == piece.getOwner()) {
-                return false; // Cannot move onto own piece
+                return flags | Game.MOVE_REJECTED; // Cannot move onto own piece
             } else {
                 // Swap
                 occupyingPiece.setPosition(pos);
@@ -335,117 +865,57 @@ public class ComputerPlayer {
         }
         
         // House of Rebirth if occupied
-        if (targetPos == 14) {
-            GameSnapshot.PieceSnapshot p = snapshot.getPieceAt(14);
+        int targetPos = rules.target(rule);
+        if (landing == rules.getRebirthSquare()) {
+            GameSnapshot.PieceSnapshot p = snapshot.getPieceAt(landing);
             if (p != null && p != piece) {
-                targetPos = snapshot.findEmptyBeforeRebirth();
+                targetPos = snapshot.findEmptyBeforeRebirth(rules.getRebirthSquare());
             }
         }
         
-        // Move piece
+        // Move piece (Water already resolved to Rebirth by the table)
         piece.setPosition(targetPos);
-        
-        // Handle special houses
-        switch (targetPos + 1) {
-            case 27 -> piece.setPosition(14); // House of Water
-            case 28 -> piece.setCanExitNextTurn(true); // Three Truths
-            case 29 -> piece.setCanExitNextTurn(true); // Re-Atoum
-            case 30 -> piece.setCanExitNextTurn(true); // Horus
+        if ((flags & RuleTable.SETS_EXIT_FLAG) != 0) {
+            piece.setCanExitNextTurn(true);
         }
         
-        // Exit piece
-        if (targetPos >= 30) {
-            piece.setPosition(-1);
-            if (player == 1) {
-                snapshot.player1Exited++;
-            } else {
-                snapshot.player2Exited++;
-            }
-        }
-        
-        return true;
+        return flags;
     }
     
     private boolean canMovePieceInSnapshot(GameSnapshot snapshot, GameSnapshot.PieceSnapshot piece, int roll) {
         int pos = piece.getPosition();
         if (pos < 0) return false;
         
-        int targetPos = pos + roll;
-        
-        // Check if can exit
-        if (targetPos >= 30) {
-            if (piece.canExitNextTurn()) {
-                int houseNum = pos + 1;
-                if (houseNum == 28) return roll == 3;
-                if (houseNum == 29) return roll == 2;
-                if (houseNum == 30) return true;
-            }
-            return true;
-        }
-        
-        // Check House of Happiness rule
-        if (pos < 25 && targetPos > 25) {
-            return false;
-        }
+        int rule = RuleTable.index(pos, roll, piece.canExitNextTurn());
+        if ((rules.flags(rule) & RuleTable.UNPLAYABLE) != 0) return false;
         
         // Check collision with own piece
-        GameSnapshot.PieceSnapshot occupyingPiece = snapshot.getPieceAt(targetPos);
-        if (occupyingPiece != null && occupyingPiece.getOwner() == piece.getOwner()) {
-            return false;
+        int blocker = rules.blocker(rule);
+        if (blocker >= 0) {
+            GameSnapshot.PieceSnapshot occupyingPiece = snapshot.getPieceAt(blocker);
+            if (occupyingPiece != null && occupyingPiece.getOwner() == piece.getOwner()) {
+                return false;
+            }
         }
         
         return true;
     }
     
-    private boolean canMovePiece(Piece piece, int roll) {
-        int pos = piece.getPosition();
-        if (pos < 0) return false;
-        
-        int targetPos = pos + roll;
-        
-        // Check if can exit
-        if (targetPos >= 30) {
-            if (piece.canExitNextTurn()) {
-                int houseNum = pos + 1;
-                if (houseNum == 28) return roll == 3;
-                if (houseNum == 29) return roll == 2;
-                if (houseNum == 30) return true;
-            }
-            return true;
-        }
-        
-        // Check House of Happiness rule
-        if (pos < 25 && targetPos > 25) {
-            return false;
-        }
-        
-        // Check collision with own piece
-        Piece occupyingPiece = game.getPieceAt(targetPos);
-        if (occupyingPiece != null && occupyingPiece.getOwner() == piece.getOwner()) {
-            return false;
+    private void countNode() {
+        nodesSearched++;
+        if (stopRequested
+                || (nodeLimit > 0 && nodesSearched > nodeLimit)
+                || (deadline != 0 && (nodesSearched & 255) == 0 && System.nanoTime() - deadline > 0)) {
+            throw SearchAborted.INSTANCE;
         }
-        
-        return true;
     }
     
-    private List<Piece> getComputerPieces() {
-        List<Piece> allPieces = game.getAllPieces();
-        List<Piece> computerPieces = new ArrayList<>();
-        for (Piece p : allPieces) {
-            if (p.getOwner() == 2) {
-                computerPieces.add(p);
-            }
-        }
-        return computerPieces;
+    private boolean logInfo() {
+        return verbose && logger.isLoggable(Level.INFO);
     }
     
-    private GameSnapshot.PieceSnapshot findPieceInSnapshot(GameSnapshot snapshot, Piece piece) {
-        for (GameSnapshot.PieceSnapshot p : snapshot.getPieces()) {
-            if (p.getOwner() == piece.getOwner() && p.getPosition() == piece.getPosition()) {
-                return p;
-            }
-        }
-        return null;
+    private boolean logFine() {
+        return verbose && logger.isLoggable(Level.FINE);
     }
     
     private GameSnapshot.PieceSnapshot findPieceInSnapshot(GameSnapshot snapshot, GameSnapshot.PieceSnapshot piece) {
@@ -457,12 +927,24 @@ public class ComputerPlayer {
         return null;
     }
     
+    /**
+     * Unwinds a search that hit a limit; carries no stack trace
+     */
+    private static final class SearchAborted extends RuntimeException {
+        static final SearchAborted INSTANCE = new SearchAborted();
+        
+        private SearchAborted() {
+            super(null, null, false, false);
+        }
+    }
+    
     /**
      * Helper class to represent a move
      */
     private static class Move {
         GameSnapshot.PieceSnapshot piece;
         int roll;
+        int order; // Move ordering score, higher first
         
         Move(GameSnapshot.PieceSnapshot piece, int roll) {
             this.piece = piece;
@@ -480,13 +962,17 @@ public class ComputerPlayer {
         public int player2Exited;
         
         public GameSnapshot(Game game) {
+            this(game.getState()); // The published state, never a half-applied move
+        }
+
+        public GameSnapshot(GameState state) {
             this.pieces = new ArrayList<>();
-            for (Piece p : game.getAllPieces()) {
-                pieces.add(new PieceSnapshot(p));
+            for (int i = 0; i < GameState.PIECES; i++) {
+                pieces.add(new PieceSnapshot(state.pieceSquare(i), GameState.pieceOwner(i), state.pieceCanExitNextTurn(i)));
             }
-            this.currentPlayer = game.getCurrentPlayer();
-            this.player1Exited = game.getPlayer1Exited();
-            this.player2Exited = game.getPlayer2Exited();
+            this.currentPlayer = state.getCurrentPlayer();
+            this.player1Exited = state.getPlayer1Exited();
+            this.player2Exited = state.getPlayer2Exited();
         }
         
         public GameSnapshot(GameSnapshot other) {
@@ -525,8 +1011,29 @@ public class ComputerPlayer {
             return 0;
         }
         
-        public int findEmptyBeforeRebirth() {
-            for (int pos = 14; pos >= 0; pos--) {
+        public long piecesKey() {
+            long key = 0;
+            for (PieceSnapshot p : pieces) {
+                if (p.position >= 0) key ^= TranspositionTable.pieceKey(p.owner, p.canExitNextTurn, p.position);
+            }
+            return key;
+        }
+        
+        /**
+         * This position, with the given player to move, as a GameState
+         */
+        public GameState toState(int player) {
+            int[] squares = new int[GameState.PIECES];
+            boolean[] exitFlags = new boolean[GameState.PIECES];
+            for (int i = 0; i < GameState.PIECES; i++) {
+                squares[i] = pieces.get(i).getPosition();
+                exitFlags[i] = pieces.get(i).canExitNextTurn();
+            }
+            return GameState.of(squares, exitFlags, player1Exited, player2Exited, player);
+        }
+        
+        public int findEmptyBeforeRebirth(int rebirthSquare) {
+            for (int pos = rebirthSquare; pos >= 0; pos--) {
                 if (getPieceAt(pos) == null) return pos;
             }
             return 0;
@@ -537,10 +1044,10 @@ public class ComputerPlayer {
             private final int owner;
             private boolean canExitNextTurn;
             
-            public PieceSnapshot(Piece piece) {
-                this.position = piece.getPosition();
-                this.owner = piece.getOwner();
-                this.canExitNextTurn = piece.canExitNextTurn();
+            public PieceSnapshot(int position, int owner, boolean canExitNextTurn) {
+                this.position = position;
+                this.owner = owner;
+                this.canExitNextTurn = canExitNextTurn;
             }
             
             public PieceSnapshot(PieceSnapshot other) {
@@ -0,0 +1,29 @@
+package model;
+
+/**
+ * A computer opponent: chooses which piece to move for a throw.
+ * Implemented by ComputerPlayer (expectiminimax) and MctsPlayer (Monte Carlo).
+ */
+public interface ComputerStrategy {
+
+    /**
+     * @param roll The dice roll value (1-5)
+     * @return The piece to move (the game is not changed), or null if no valid move
+     */
+    Piece makeMove(int roll);
+
+    /**
+     * Player this strategy moves for (1 or 2)
+     */
+    int getAiPlayer();
+
+    /**
+     * Value of the move chosen by the last makeMove on the strategy's own scale, NaN if none
+     */
+    double getLastBestValue();
+
+    /**
+     * Releases any threads the strategy owns; it must not be used afterwards
+     */
+    default void shutdown() {}
+}
@@ -0,0 +1,114 @@
+package model;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * The weights of ComputerPlayer's position evaluation, from the side of the
+ * player whose pieces they count (the opponent's count negatively):
+ *
+ *   exited       per piece borne off
+ *   progress     per square a piece has advanced
+ *   happiness, water, threeTruths, reAtoum, horus
+ *                for a piece standing on that house (26 to 30)
+ *   exitFlag     for a piece allowed to exit next turn
+ *
+ * Wins and losses are scored apart from these, so only the ratios between
+ * weights change play. As a vector (toVector) the weights are in NAMES
+ * order; files are Properties with those keys, missing keys keeping their
+ * default.
+ */
+public record EvalWeights(double exited, double progress, double happiness, double water,
+                          double threeTruths, double reAtoum, double horus, double exitFlag) {
+
+    public static final EvalWeights DEFAULT = new EvalWeights(1000, 1, 50, -20, 40, 40, 50, 30);
+
+    public static final List<String> NAMES =
+            List.of("exited", "progress", "happiness", "water", "threeTruths", "reAtoum", "horus", "exitFlag");
+
+    public double[] toVector() {
+        return new double[] {exited, progress, happiness, water, threeTruths, reAtoum, horus, exitFlag};
+    }
+
+    public static EvalWeights fromVector(double[] v) {
+        if (v.length != NAMES.size()) throw new IllegalArgumentException("Expected " + NAMES.size() + " weights: " + v.length);
+        return new EvalWeights(v[0], v[1], v[2], v[3], v[4], v[5], v[6], v[7]);
+    }
+
+    /**
+     * Bonus for a piece standing on square (house number = square + 1)
+     */
+    public double houseBonus(int square) {
+        return switch (square + 1) {
+            case 26 -> happiness;
+            case 27 -> water;
+            case 28 -> threeTruths;
+            case 29 -> reAtoum;
+            case 30 -> horus;
+            default -> 0;
+        };
+    }
+
+    /**
+     * Mixed into transposition keys, since stored values depend on the weights
+     */
+    long fingerprint() {
+        long h = 0;
+        for (double w : toVector()) h = (h ^ Double.doubleToLongBits(w)) * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 29);
+    }
+
+    /**
+     * Reads weights by name from properties; missing keys keep their DEFAULT value
+     * @throws IllegalArgumentException if a value is not a number
+     */
+    public static EvalWeights fromProperties(Properties props) {
+        double[] v = DEFAULT.toVector();
+        for (int i = 0; i < v.length; i++) {
+            String value = props.getProperty(NAMES.get(i));
+            if (value == null) continue;
+            try {
+                v[i] = Double.parseDouble(value.trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Bad weight " + NAMES.get(i) + "=" + value);
+            }
+        }
+        return fromVector(v);
+    }
+
+    public void toProperties(Properties props) {
+        double[] v = toVector();
+        for (int i = 0; i < v.length; i++) props.setProperty(NAMES.get(i), Double.toString(v[i]));
+    }
+
+    public static EvalWeights load(Path file) throws IOException {
+        Properties props = new Properties();
+        try (Reader in = Files.newBufferedReader(file)) {
+            props.load(in);
+        }
+        return fromProperties(props);
+    }
+
+    public void store(Path file, String comment) throws IOException {
+        Properties props = new Properties();
+        toProperties(props);
+        try (Writer out = Files.newBufferedWriter(file)) {
+            props.store(out, comment);
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        double[] v = toVector();
+        for (int i = 0; i < v.length; i++) {
+            text.append(i == 0 ? "" : " ").append(NAMES.get(i)).append('=').append(String.format("%.2f", v[i]));
+        }
+        return text.toString();
+    }
+}
@@ -3,23 +3,70 @@ package model;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class Game {
 
+    public static final int MOVE_REJECTED = 1 << 16; // applyMove flag: nothing moved
+
     private final List<Piece> player1 = new ArrayList<>();
     private final List<Piece> player2 = new ArrayList<>();
-    private final Board board = new Board();
+    private final Board board;
     private int currentPlayer = 1;
-    private final Random random = new Random();
+    private final Random random;
+    private final StickThrow stickThrow;
     private int player1Exited = 0;
     private int player2Exited = 0;
+    // Published after every change; the only part of a game other threads may read
+    private final AtomicReference<GameState> state = new AtomicReference<>();
+    private GameStats stats = null; // Records moves made here when set
+    private int throwCount = 0;
+    private int chain = 0;          // Moves the current player made this turn
+    private boolean swapped = false; // Whether the last move swapped with an opposing piece
 
     public Game() {
+        this(StickThrow.UNIFORM);
+    }
+
+    public Game(StickThrow stickThrow) {
+        this(stickThrow, RuleTable.standard());
+    }
+
+    public Game(StickThrow stickThrow, RuleTable rules) {
+        this(stickThrow, rules, new Random());
+    }
+
+    /**
+     * @param random Source of stick throws; games sharing a seed see the same roll sequence
+     */
+    public Game(StickThrow stickThrow, RuleTable rules, Random random) {
+        this.stickThrow = stickThrow;
+        this.random = random;
+        this.board = new Board(rules);
         for (int i = 0; i < 7; i++) {
             player1.add(new Piece(1));
             player2.add(new Piece(2));
         }
         setupInitialPositions();
+        publishState(0);
+    }
+
+    /**
+     * A game in the given position, piece for piece (as in getAllPieces), so
+     * two pieces sharing Rebirth stay two pieces
+     */
+    public static Game fromState(GameState state, StickThrow stickThrow, RuleTable rules) {
+        Game game = new Game(stickThrow, rules);
+        List<Piece> pieces = game.getAllPieces();
+        for (int i = 0; i < GameState.PIECES; i++) {
+            pieces.get(i).setPosition(state.pieceSquare(i));
+            pieces.get(i).setCanExitNextTurn(state.pieceCanExitNextTurn(i));
+        }
+        game.player1Exited = state.getPlayer1Exited();
+        game.player2Exited = state.getPlayer2Exited();
+        game.currentPlayer = state.getCurrentPlayer();
+        game.publishState(state.getLastMoveFlags());
+        return game;
     }
 
     private void setupInitialPositions() {
@@ -32,9 +79,32 @@ public class Game {
 
     public int getCurrentPlayer() { return currentPlayer; }
 
-    public void nextPlayer() { currentPlayer = currentPlayer == 1 ? 2 : 1; }
+    public void nextPlayer() {
+        if (stats != null && chain > 0) stats.recordChain(chain);
+        chain = 0;
+        currentPlayer = currentPlayer == 1 ? 2 : 1;
+        publishState(0);
+    }
+
+    /**
+     * The current position as an immutable value; safe to call from any thread
+     */
+    public GameState getState() { return state.get(); }
 
-    public int rollSticks() { return random.nextInt(5) + 1; }
+    /**
+     * Publishes the pieces' current position; called after every change to them
+     * @param lastMoveFlags Flags of the move just made, 0 if the change was not a move
+     */
+    void publishState(int lastMoveFlags) {
+        state.set(GameState.of(this, lastMoveFlags));
+    }
+
+    public int rollSticks() {
+        throwCount++;
+        return stickThrow.roll(random);
+    }
+
+    public StickThrow getStickThrow() { return stickThrow; }
 
     public List<Piece> getAllPieces() {
         List<Piece> all = new ArrayList<>();
@@ -52,6 +122,90 @@ public class Game {
 
     public Board getBoard() { return board; }
 
+    /**
+     * Records every move applyMove makes from now on, and the game when it is won; null stops recording
+     */
+    public void setStats(GameStats stats) { this.stats = stats; }
+
+    public GameStats getStats() { return stats; }
+
+    /**
+     * Moves a piece by roll under the board's rules. Turn order is left to the caller.
+     * @return RuleTable flags of the transition, plus MOVE_REJECTED if the piece could not move
+     */
+    public int applyMove(Piece piece, int roll) {
+        int flags = move(piece, roll);
+        publishState(flags);
+        if (stats != null && (flags & MOVE_REJECTED) == 0) record(piece, flags);
+        return flags;
+    }
+
+    private void record(Piece piece, int flags) {
+        stats.recordMove(piece.getPosition(), flags, swapped);
+        chain++;
+        int winner = checkWinner();
+        if (winner != 0) {
+            stats.recordChain(chain);
+            chain = 0;
+            stats.recordGame(winner, throwCount);
+        }
+    }
+
+    private int move(Piece piece, int roll) {
+        RuleTable rules = board.getRules();
+        swapped = false;
+        int pos = piece.getPosition();
+        if (pos < 0) return MOVE_REJECTED;
+        int rule = RuleTable.index(pos, roll, piece.canExitNextTurn());
+        int flags = rules.flags(rule);
+
+        // Three Truths / Re-Atoum: wrong throw sends the piece back to Rebirth
+        if ((flags & RuleTable.GATE_FAILED) != 0) {
+            piece.setPosition(rules.target(rule));
+            piece.setCanExitNextTurn(false);
+            return flags;
+        }
+        if ((flags & RuleTable.CLEARS_EXIT_FLAG) != 0) piece.setCanExitNextTurn(false);
+
+        // House of Happiness
+        if ((flags & RuleTable.BLOCKED) != 0) return flags | MOVE_REJECTED;
+
+        // Collision
+        int landing = rules.landing(rule);
+        Piece occupyingPiece = landing >= 0 ? getPieceAt(landing) : null;
+        if (occupyingPiece != null) {
+            if (occupyingPiece.getOwner() == piece.getOwner()) return flags | MOVE_REJECTED;
+            occupyingPiece.setPosition(pos); // Swap
+            swapped = true;
+        }
+
+        // Exit piece
+        if ((flags & RuleTable.EXIT) != 0) {
+            piece.setPosition(-1);
+            incrementPlayerExited(piece.getOwner());
+            return flags;
+        }
+
+        // House of Rebirth if occupied
+        int targetPos = rules.target(rule);
+        if (landing == rules.getRebirthSquare()) {
+            Piece p = getPieceAt(landing);
+            if (p != null && p != piece) targetPos = findEmptyBeforeRebirth();
+        }
+
+        // Move piece (Water already resolved to Rebirth by the table)
+        piece.setPosition(targetPos);
+        if ((flags & RuleTable.SETS_EXIT_FLAG) != 0) piece.setCanExitNextTurn(true);
+        return flags;
+    }
+
+    /**
+     * True if the player who made a move with these applyMove flags throws again
+     */
+    public static boolean keepsTurn(int flags) {
+        return (flags & RuleTable.EXTRA_TURN) != 0 && (flags & (RuleTable.GATE_FAILED | MOVE_REJECTED)) == 0;
+    }
+
     // Exit logic
     public int getPlayer1Exited() { return player1Exited; }
     public int getPlayer2Exited() { return player2Exited; }
@@ -59,6 +213,7 @@ public class Game {
     public void incrementPlayerExited(int player) {
         if (player == 1) player1Exited++;
         else player2Exited++;
+        publishState(0);
     }
 
     // Check winner
@@ -70,7 +225,7 @@ public class Game {
 
     // Find first empty before Rebirth (House 15 / index 14)
     public int findEmptyBeforeRebirth() {
-        for (int pos = 14; pos >= 0; pos--) {
+        for (int pos = board.getRules().getRebirthSquare(); pos >= 0; pos--) {
             if (getPieceAt(pos) == null) return pos;
         }
         return 0;
@@ -0,0 +1,291 @@
+package model;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable game position: the square and exit flag of each of the 14
+ * pieces, the pieces each player has exited and the player to move. apply
+ * returns a new state and never changes this one, so a state can be handed
+ * to any thread without copying or locking.
+ *
+ * Game publishes its current state through an AtomicReference after every
+ * change (Game.getState), so search threads, renderers and statistics read
+ * a consistent position instead of the mutable Pieces GameController moves.
+ *
+ * One byte per piece, in Game.getAllPieces order (player 1's seven, then
+ * player 2's): the square plus EXIT_FLAG, or EXITED. Keeping pieces rather
+ * than squares means two pieces sharing Rebirth (Game allows it after Water
+ * or a failed gate) are represented exactly.
+ */
+public final class GameState {
+    public static final int PIECES = 14;
+    private static final int PIECES_PER_PLAYER = PIECES / 2;
+    private static final byte EXIT_FLAG = 0x40;
+    private static final byte SQUARE_MASK = 0x3F;
+    private static final byte EXITED = -1;
+
+    public static final GameState START = fromPosition(PositionFormat.START);
+
+    private final byte[] pieces;
+    private final byte player1Exited;
+    private final byte player2Exited;
+    private final byte currentPlayer;
+    private final int lastMoveFlags; // Game.applyMove flags of the move that led here, 0 if none
+
+    private GameState(byte[] pieces, int player1Exited, int player2Exited, int currentPlayer, int lastMoveFlags) {
+        this.pieces = pieces;
+        this.player1Exited = (byte) player1Exited;
+        this.player2Exited = (byte) player2Exited;
+        this.currentPlayer = (byte) currentPlayer;
+        this.lastMoveFlags = lastMoveFlags;
+    }
+
+    /**
+     * The position of a game's pieces; to be called by the thread changing the game
+     */
+    static GameState of(Game game, int lastMoveFlags) {
+        byte[] pieces = new byte[PIECES];
+        List<Piece> all = game.getAllPieces();
+        for (int i = 0; i < PIECES; i++) {
+            Piece p = all.get(i);
+            pieces[i] = encode(p.getPosition(), p.canExitNextTurn());
+        }
+        return new GameState(pieces, game.getPlayer1Exited(), game.getPlayer2Exited(), game.getCurrentPlayer(), lastMoveFlags);
+    }
+
+    /**
+     * A position from each piece's square (-1 once exited) and exit flag, in Game.getAllPieces order
+     */
+    static GameState of(int[] squares, boolean[] exitFlags, int player1Exited, int player2Exited, int currentPlayer) {
+        byte[] pieces = new byte[PIECES];
+        for (int i = 0; i < PIECES; i++) pieces[i] = encode(squares[i], exitFlags[i]);
+        return new GameState(pieces, player1Exited, player2Exited, currentPlayer, 0);
+    }
+
+    /**
+     * @param text A position in PositionFormat
+     * @throws IllegalArgumentException if the text is not a valid position
+     */
+    public static GameState fromPosition(String text) {
+        String[] parts = text.trim().split("\\s+");
+        if (parts.length != 2 || parts[0].length() != Board.SIZE || !parts[1].matches("[12]")) {
+            throw new IllegalArgumentException("Expected " + Board.SIZE + " squares and the player to move: " + text);
+        }
+        byte[] pieces = new byte[PIECES];
+        Arrays.fill(pieces, EXITED);
+        int[] next = {0, 0, PIECES_PER_PLAYER}; // Next free piece index per owner
+        for (int square = 0; square < Board.SIZE; square++) {
+            char c = parts[0].charAt(square);
+            int owner = switch (Character.toLowerCase(c)) {
+                case '.' -> 0;
+                case 'r' -> 1;
+                case 'b' -> 2;
+                default -> throw new IllegalArgumentException("Unknown square character '" + c + "' in " + text);
+            };
+            if (owner == 0) continue;
+            if (next[owner] == owner * PIECES_PER_PLAYER) {
+                throw new IllegalArgumentException("More than " + PIECES_PER_PLAYER + " pieces for one player: " + text);
+            }
+            pieces[next[owner]++] = encode(square, Character.isUpperCase(c));
+        }
+        return new GameState(pieces, PIECES_PER_PLAYER - next[1], PIECES - next[2], Integer.parseInt(parts[1]), 0);
+    }
+
+    private static byte encode(int square, boolean exitFlag) {
+        if (square < 0 || square >= Board.SIZE) return EXITED;
+        return (byte) (square | (exitFlag ? EXIT_FLAG : 0));
+    }
+
+    public int getCurrentPlayer() { return currentPlayer; }
+
+    public int getPlayer1Exited() { return player1Exited; }
+
+    public int getPlayer2Exited() { return player2Exited; }
+
+    public int getLastMoveFlags() { return lastMoveFlags; }
+
+    public static int pieceOwner(int piece) { return piece < PIECES_PER_PLAYER ? 1 : 2; }
+
+    /**
+     * @return The square of a piece (index as in Game.getAllPieces), -1 once exited
+     */
+    public int pieceSquare(int piece) { return pieces[piece] == EXITED ? -1 : pieces[piece] & SQUARE_MASK; }
+
+    public boolean pieceCanExitNextTurn(int piece) { return pieces[piece] != EXITED && (pieces[piece] & EXIT_FLAG) != 0; }
+
+    /**
+     * @return The first piece on the square, as Game.getPieceAt finds it, or -1
+     */
+    public int pieceAt(int square) {
+        return firstAt(pieces, square);
+    }
+
+    /**
+     * @return The owner of the piece on the square, 0 if it is empty
+     */
+    public int ownerAt(int square) {
+        int piece = pieceAt(square);
+        return piece < 0 ? 0 : pieceOwner(piece);
+    }
+
+    /**
+     * True if two pieces share a square (Rebirth, after Water or a failed
+     * gate), which PositionFormat cannot show
+     */
+    public boolean hasSharedSquare() {
+        for (int i = 0; i < PIECES; i++) {
+            int square = pieceSquare(i);
+            if (square >= 0 && firstAt(pieces, square) != i) return true;
+        }
+        return false;
+    }
+
+    public int winner() {
+        if (player1Exited == PIECES_PER_PLAYER) return 1;
+        if (player2Exited == PIECES_PER_PLAYER) return 2;
+        return 0;
+    }
+
+    /**
+     * True if the player to move has a piece on fromSquare that Game.applyMove would move by roll
+     */
+    public boolean isLegal(int fromSquare, int roll, RuleTable rules) {
+        int piece = moverAt(fromSquare);
+        return piece >= 0 && (moveFlags(piece, roll, rules) & Game.MOVE_REJECTED) == 0;
+    }
+
+    /**
+     * Moves the player to move's piece on fromSquare exactly as
+     * Game.applyMove does and passes the turn unless the move keeps it
+     * (Game.keepsTurn)
+     * @throws IllegalArgumentException if the move is not legal
+     */
+    public GameState apply(int fromSquare, int roll, RuleTable rules) {
+        int piece = moverAt(fromSquare);
+        if (piece < 0) throw new IllegalArgumentException("No piece of player " + currentPlayer + " on square " + fromSquare);
+        return applyPiece(piece, roll, rules);
+    }
+
+    /**
+     * As apply, naming the piece by its index (which matters only when two
+     * pieces share a square)
+     */
+    public GameState applyPiece(int piece, int roll, RuleTable rules) {
+        int fromSquare = pieceSquare(piece);
+        if (fromSquare < 0 || pieceOwner(piece) != currentPlayer) {
+            throw new IllegalArgumentException("Piece " + piece + " cannot move for player " + currentPlayer);
+        }
+        int flags = moveFlags(piece, roll, rules);
+        if ((flags & Game.MOVE_REJECTED) != 0) {
+            throw new IllegalArgumentException("Illegal move from square " + fromSquare + " with roll " + roll);
+        }
+        int rule = RuleTable.index(fromSquare, roll, pieceCanExitNextTurn(piece));
+        byte[] next = pieces.clone();
+        int exited1 = player1Exited;
+        int exited2 = player2Exited;
+        if ((flags & RuleTable.GATE_FAILED) != 0) {
+            next[piece] = encode(rules.target(rule), false);
+        } else {
+            boolean exitFlag = pieceCanExitNextTurn(piece) && (flags & RuleTable.CLEARS_EXIT_FLAG) == 0;
+            int landing = rules.landing(rule);
+            int occupant = landing >= 0 ? pieceAt(landing) : -1;
+            if (occupant >= 0) next[occupant] = encode(fromSquare, pieceCanExitNextTurn(occupant)); // Swap
+            if ((flags & RuleTable.EXIT) != 0) {
+                next[piece] = EXITED;
+                if (currentPlayer == 1) exited1++;
+                else exited2++;
+            } else {
+                int target = rules.target(rule);
+                if (landing == rules.getRebirthSquare()) {
+                    int p = firstAt(next, landing);
+                    if (p >= 0 && p != piece) target = emptyBeforeRebirth(next, rules.getRebirthSquare());
+                }
+                next[piece] = encode(target, exitFlag || (flags & RuleTable.SETS_EXIT_FLAG) != 0);
+            }
+        }
+        int nextPlayer = Game.keepsTurn(flags) ? currentPlayer : 3 - currentPlayer;
+        return new GameState(next, exited1, exited2, nextPlayer, flags);
+    }
+
+    /**
+     * The same position with the other player to move (no legal move)
+     */
+    public GameState pass() {
+        return new GameState(pieces, player1Exited, player2Exited, 3 - currentPlayer, 0);
+    }
+
+    private int moverAt(int square) {
+        for (int i = 0; i < PIECES; i++) {
+            if (pieceSquare(i) == square && pieceOwner(i) == currentPlayer) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * RuleTable flags of a move, plus Game.MOVE_REJECTED if it cannot be made
+     */
+    private int moveFlags(int piece, int roll, RuleTable rules) {
+        int rule = RuleTable.index(pieceSquare(piece), roll, pieceCanExitNextTurn(piece));
+        int flags = rules.flags(rule);
+        if ((flags & RuleTable.GATE_FAILED) != 0) return flags;
+        if ((flags & RuleTable.BLOCKED) != 0) return flags | Game.MOVE_REJECTED;
+        int landing = rules.landing(rule);
+        if (landing >= 0 && ownerAt(landing) == currentPlayer) return flags | Game.MOVE_REJECTED;
+        return flags;
+    }
+
+    private static int firstAt(byte[] pieces, int square) {
+        for (int i = 0; i < PIECES; i++) {
+            if (pieces[i] != EXITED && (pieces[i] & SQUARE_MASK) == square) return i;
+        }
+        return -1;
+    }
+
+    private static int emptyBeforeRebirth(byte[] pieces, int rebirthSquare) {
+        for (int pos = rebirthSquare; pos >= 0; pos--) {
+            if (firstAt(pieces, pos) < 0) return pos;
+        }
+        return 0;
+    }
+
+    /**
+     * The position in PositionFormat (which shows one piece per square)
+     */
+    @Override
+    public String toString() {
+        char[] text = new char[Board.SIZE];
+        Arrays.fill(text, '.');
+        for (int i = 0; i < PIECES; i++) {
+            int square = pieceSquare(i);
+            if (square < 0) continue;
+            char c = pieceOwner(i) == 1 ? 'r' : 'b';
+            text[square] = pieceCanExitNextTurn(i) ? Character.toUpperCase(c) : c;
+        }
+        return new String(text) + " " + currentPlayer;
+    }
+
+    /**
+     * Equal positions: the same squares and exit flags for each player's
+     * pieces in any order, the same exits and player to move. The last move's
+     * flags do not count
+     */
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof GameState other && currentPlayer == other.currentPlayer
+                && player1Exited == other.player1Exited && player2Exited == other.player2Exited
+                && Arrays.equals(canonical(), other.canonical());
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(canonical()) + currentPlayer;
+    }
+
+    private byte[] canonical() {
+        byte[] sorted = pieces.clone();
+        Arrays.sort(sorted, 0, PIECES_PER_PLAYER);
+        Arrays.sort(sorted, PIECES_PER_PLAYER, PIECES);
+        return sorted;
+    }
+}
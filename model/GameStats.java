@@ -0,0 +1,266 @@
+package model;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Statistics over every game given to Game.setStats: where moved pieces
+ * land, Water resets, failed exit gates (back to Rebirth), swaps,
+ * extra-turn chains (moves in a row by one player), game lengths in throws
+ * and wins by player 1, who always throws first. Only moves Game.applyMove
+ * makes are counted, not the ones a search tries.
+ *
+ * Any number of games on any number of threads can share one instance:
+ * counts go to LongAdders and StripedHistograms, so recording a move costs
+ * a few uncontended atomic adds. snapshot() reads the totals as a
+ * Snapshot; snapshots add up with merge, so files written by several
+ * processes (flushEvery) combine into one report.
+ */
+public final class GameStats implements AutoCloseable {
+    private static final Logger logger = Logger.getLogger(GameStats.class.getName());
+    public static final int EXITED = Board.SIZE; // Landing bucket of pieces that left the board
+    public static final int MAX_CHAIN = 16; // Longer chains are counted here
+    public static final int LENGTH_BUCKET = 10; // Throws per game length bucket
+    public static final int LENGTH_BUCKETS = 300; // The last one also counts longer games
+
+    private final LongAdder moves = new LongAdder();
+    private final LongAdder swaps = new LongAdder();
+    private final LongAdder waterResets = new LongAdder();
+    private final LongAdder gateResets = new LongAdder();
+    private final LongAdder games = new LongAdder();
+    private final LongAdder player1Wins = new LongAdder();
+    private final StripedHistogram landing = new StripedHistogram(Board.SIZE + 1);
+    private final StripedHistogram chains = new StripedHistogram(MAX_CHAIN + 1);
+    private final StripedHistogram lengths = new StripedHistogram(LENGTH_BUCKETS);
+    private ScheduledExecutorService flusher;
+    private Path flushFile;
+
+    /**
+     * @param square Where the piece ended up, -1 if it exited
+     */
+    void recordMove(int square, int flags, boolean swapped) {
+        moves.increment();
+        landing.increment(square < 0 ? EXITED : square);
+        if (swapped) swaps.increment();
+        if ((flags & RuleTable.WATER_RESET) != 0) waterResets.increment();
+        if ((flags & RuleTable.GATE_FAILED) != 0) gateResets.increment();
+    }
+
+    /**
+     * @param moves Moves one player made in a row before the turn passed
+     */
+    void recordChain(int moves) {
+        chains.increment(Math.min(moves, MAX_CHAIN));
+    }
+
+    void recordGame(int winner, int throwCount) {
+        games.increment();
+        if (winner == 1) player1Wins.increment();
+        lengths.increment(throwCount / LENGTH_BUCKET);
+    }
+
+    public Snapshot snapshot() {
+        return new Snapshot(moves.sum(), swaps.sum(), waterResets.sum(), gateResets.sum(), games.sum(),
+                player1Wins.sum(), landing.sum(), chains.sum(), lengths.sum());
+    }
+
+    /**
+     * Writes a snapshot to file every intervalMillis on a daemon thread, and
+     * once more on close. Each write replaces the file in one step, so a
+     * reader never sees half of it
+     */
+    public synchronized void flushEvery(Path file, long intervalMillis) {
+        if (flusher != null) throw new IllegalStateException("Already flushing to " + flushFile);
+        flushFile = file;
+        flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "game-stats-flush");
+            t.setDaemon(true);
+            return t;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void flush() {
+        try {
+            snapshot().store(flushFile);
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Cannot write game statistics to " + flushFile, e);
+        }
+    }
+
+    /**
+     * Stops periodic flushing after a last write
+     */
+    @Override
+    public synchronized void close() {
+        if (flusher == null) return;
+        flusher.shutdownNow();
+        flush();
+        flusher = null;
+    }
+
+    /**
+     * Totals at one moment; immutable
+     */
+    public static final class Snapshot {
+        public static final Snapshot EMPTY = new Snapshot(0, 0, 0, 0, 0, 0,
+                new long[Board.SIZE + 1], new long[MAX_CHAIN + 1], new long[LENGTH_BUCKETS]);
+
+        public final long moves;
+        public final long swaps;
+        public final long waterResets;
+        public final long gateResets;
+        public final long games;
+        public final long player1Wins;
+        private final long[] landing; // Per square, EXITED for exits
+        private final long[] chains;  // Per chain length, 0 unused
+        private final long[] lengths; // Per LENGTH_BUCKET throws
+
+        Snapshot(long moves, long swaps, long waterResets, long gateResets, long games, long player1Wins,
+                 long[] landing, long[] chains, long[] lengths) {
+            this.moves = moves;
+            this.swaps = swaps;
+            this.waterResets = waterResets;
+            this.gateResets = gateResets;
+            this.games = games;
+            this.player1Wins = player1Wins;
+            this.landing = landing;
+            this.chains = chains;
+            this.lengths = lengths;
+        }
+
+        public long[] getLanding() { return landing.clone(); }
+        public long[] getChains() { return chains.clone(); }
+        public long[] getLengths() { return lengths.clone(); }
+
+        public Snapshot merge(Snapshot other) {
+            return new Snapshot(moves + other.moves, swaps + other.swaps, waterResets + other.waterResets,
+                    gateResets + other.gateResets, games + other.games, player1Wins + other.player1Wins,
+                    add(landing, other.landing), add(chains, other.chains), add(lengths, other.lengths));
+        }
+
+        private static long[] add(long[] a, long[] b) {
+            long[] sum = a.clone();
+            for (int i = 0; i < sum.length; i++) sum[i] += b[i];
+            return sum;
+        }
+
+        /**
+         * Writes the snapshot as properties, replacing file in one step
+         */
+        public void store(Path file) throws IOException {
+            Properties props = new Properties();
+            props.setProperty("moves", Long.toString(moves));
+            props.setProperty("swaps", Long.toString(swaps));
+            props.setProperty("waterResets", Long.toString(waterResets));
+            props.setProperty("gateResets", Long.toString(gateResets));
+            props.setProperty("games", Long.toString(games));
+            props.setProperty("player1Wins", Long.toString(player1Wins));
+            props.setProperty("landing", join(landing));
+            props.setProperty("chains", join(chains));
+            props.setProperty("lengths", join(lengths));
+            PropertiesFile.storeAtomically(props, file, "GameStats snapshot");
+        }
+
+        /**
+         * @throws IllegalArgumentException if the file is not a snapshot
+         */
+        public static Snapshot load(Path file) throws IOException {
+            Properties props = new Properties();
+            try (Reader in = Files.newBufferedReader(file)) {
+                props.load(in);
+            }
+            try {
+                return new Snapshot(count(props, "moves"), count(props, "swaps"), count(props, "waterResets"),
+                        count(props, "gateResets"), count(props, "games"), count(props, "player1Wins"),
+                        counts(props, "landing", Board.SIZE + 1), counts(props, "chains", MAX_CHAIN + 1),
+                        counts(props, "lengths", LENGTH_BUCKETS));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Not a statistics snapshot: " + file + " (" + e.getMessage() + ")");
+            }
+        }
+
+        private static String join(long[] values) {
+            StringBuilder text = new StringBuilder();
+            for (int i = 0; i < values.length; i++) text.append(i == 0 ? "" : ",").append(values[i]);
+            return text.toString();
+        }
+
+        private static long count(Properties props, String key) {
+            String value = props.getProperty(key);
+            if (value == null) throw new NumberFormatException("missing " + key);
+            return Long.parseLong(value.trim());
+        }
+
+        private static long[] counts(Properties props, String key, int length) {
+            String value = props.getProperty(key);
+            if (value == null) throw new NumberFormatException("missing " + key);
+            long[] result = Arrays.stream(value.split(",")).mapToLong(s -> Long.parseLong(s.trim())).toArray();
+            if (result.length != length) throw new NumberFormatException(key + " has " + result.length + " values, expected " + length);
+            return result;
+        }
+
+        /**
+         * Summary for people: rates, chain and length distributions, landing frequency per house
+         */
+        public String format() {
+            StringBuilder text = new StringBuilder();
+            text.append(String.format("Games %d, player 1 (first to throw) won %.2f%%%n",
+                    games, percent(player1Wins, games)));
+            text.append(String.format("Moves %d (%.1f per game): swaps %.2f%%, Water resets %.2f%%, failed gates %.2f%%%n",
+                    moves, games == 0 ? 0.0 : (double) moves / games,
+                    percent(swaps, moves), percent(waterResets, moves), percent(gateResets, moves)));
+
+            long chainCount = 0, chainMoves = 0;
+            for (int i = 1; i <= MAX_CHAIN; i++) {
+                chainCount += chains[i];
+                chainMoves += i * chains[i];
+            }
+            text.append(String.format("Moves per turn: mean %.2f;", chainCount == 0 ? 0.0 : (double) chainMoves / chainCount));
+            for (int i = 1; i <= MAX_CHAIN; i++) {
+                if (chains[i] > 0) text.append(String.format(" %d%s %.2f%%", i, i == MAX_CHAIN ? "+" : "", percent(chains[i], chainCount)));
+            }
+            text.append(String.format("%n"));
+
+            text.append(String.format("Throws per game: median %s, 90th percentile %s%n",
+                    lengthPercentile(0.5), lengthPercentile(0.9)));
+
+            text.append("Landing frequency by house:");
+            for (int square = 0; square <= Board.SIZE; square++) {
+                if (square % 10 == 0) text.append(String.format("%n "));
+                String house = square == EXITED ? "exit" : Integer.toString(square + 1);
+                text.append(String.format(" %4s %5.2f%%", house, percent(landing[square], moves)));
+            }
+            return text.toString();
+        }
+
+        private String lengthPercentile(double fraction) {
+            long total = 0;
+            for (long count : lengths) total += count;
+            if (total == 0) return "-";
+            long seen = 0;
+            for (int b = 0; b < lengths.length; b++) {
+                seen += lengths[b];
+                if (seen >= fraction * total) {
+                    return b == lengths.length - 1 ? ">= " + b * LENGTH_BUCKET
+                                                   : b * LENGTH_BUCKET + "-" + (b * LENGTH_BUCKET + LENGTH_BUCKET - 1);
+                }
+            }
+            return "-";
+        }
+
+        private static double percent(long part, long whole) {
+            return whole == 0 ? 0.0 : 100.0 * part / whole;
+        }
+    }
+}
@@ -0,0 +1,581 @@
+package model;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Computer player using Monte Carlo Tree Search (UCT).
+ *
+ * The tree alternates decision nodes (a player to move with a known throw)
+ * and chance nodes (the position after a move, before the next throw).
+ * Chance nodes are not searched exhaustively: every visit samples a throw
+ * from the game's StickThrow model. Leaves are scored by fast playouts to
+ * the end of the game (greedy moves with some random ones mixed in), so the
+ * search looks as far ahead as the game lasts.
+ *
+ * Several threads share one tree (tree parallelism). A thread descending
+ * through a node adds a virtual loss to it, steering the other threads to
+ * different branches until the playout result is backed up. Nodes live in
+ * preallocated primitive arrays updated with atomic array operations; when
+ * the pool is full the tree stops growing and the remaining time goes to
+ * playouts from the existing leaves.
+ *
+ * The search is anytime: it runs until the time budget, iteration limit or
+ * requestStop, whichever comes first, and returns the most visited move.
+ * Values are estimated win probabilities for this player (0 to 1).
+ */
+public class MctsPlayer implements ComputerStrategy {
+    private static final int PIECES = 14;           // Game.getAllPieces order: player 1's seven, then player 2's
+    private static final byte PASS = -1;            // Only child of a decision node without a legal move
+    private static final int UNEXPANDED = -1;       // firstChild values below 0
+    private static final int EXPANDING = -2;
+    private static final int NO_ROOM = -3;          // Pool was full, stays a leaf
+    private static final int MAX_PLAYOUT_PLIES = 2000;
+    private static final int PLAYOUT_RANDOM_ONE_IN = 8;
+    private static final VarHandle INTS = MethodHandles.arrayElementVarHandle(int[].class);
+    private static final VarHandle LONGS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final Game game;
+    private final int aiPlayer;
+    private final StickThrow stickThrow;
+    private final RuleTable rules;
+    private final int[] possibleRolls; // Children of a chance node, in roll order
+
+    private long timeBudgetMillis = 1000; // 0 = no time limit
+    private long iterationLimit = 0;      // 0 = no limit
+    private int threads = 1;
+    private double exploration = 0.5;     // UCT constant on win probabilities
+    private int virtualLoss = 3;
+    private int poolSize = 1 << 18;
+    private long seed = System.nanoTime();
+
+    // Node pool: one slot per node, children of a node are contiguous
+    private int[] firstChild;
+    private byte[] childCount;
+    private byte[] move;    // Piece index (or PASS) of a move node, roll of a decision node
+    private int[] visits;   // Includes virtual losses of descents in progress
+    private long[] score;   // Half points for the player who made the move (win 2, draw 1)
+    private final AtomicInteger nodesUsed = new AtomicInteger();
+
+    private final AtomicLong iterations = new AtomicLong();
+    private volatile boolean stopRequested = false;
+    private volatile long deadline;
+    private State rootState;
+    private int rootRoll;
+    private ExecutorService workers;
+    private double lastBestValue = Double.NaN;
+
+    public MctsPlayer(Game game) {
+        this(game, 2);
+    }
+
+    /**
+     * @param aiPlayer Player to search for (1 or 2)
+     */
+    public MctsPlayer(Game game, int aiPlayer) {
+        this.game = game;
+        this.aiPlayer = aiPlayer;
+        this.stickThrow = game.getStickThrow();
+        this.rules = game.getBoard().getRules();
+        int count = 0;
+        int[] rolls = new int[StickThrow.MAX_ROLL];
+        for (int roll = StickThrow.MIN_ROLL; roll <= StickThrow.MAX_ROLL; roll++) {
+            if (stickThrow.probability(roll) > 0) rolls[count++] = roll;
+        }
+        this.possibleRolls = Arrays.copyOf(rolls, count);
+    }
+
+    /**
+     * Time a search may take, 1000 ms by default; 0 searches until the iteration limit or requestStop
+     */
+    public void setTimeBudget(long millis) {
+        if (millis < 0) throw new IllegalArgumentException("Time budget must not be negative: " + millis);
+        this.timeBudgetMillis = millis;
+    }
+
+    /**
+     * Playouts per search (0 = unlimited)
+     */
+    public void setIterationLimit(long iterations) {
+        if (iterations < 0) throw new IllegalArgumentException("Iteration limit must not be negative: " + iterations);
+        this.iterationLimit = iterations;
+    }
+
+    /**
+     * Threads searching the shared tree, including the caller; 1 by default
+     */
+    public void setThreads(int threads) {
+        if (threads < 1) throw new IllegalArgumentException("Threads must be at least 1: " + threads);
+        if (threads != this.threads) shutdown();
+        this.threads = threads;
+    }
+
+    public void setExploration(double exploration) { this.exploration = exploration; }
+
+    /**
+     * Visits charged to a node while a thread is below it, 3 by default
+     */
+    public void setVirtualLoss(int virtualLoss) {
+        if (virtualLoss < 1) throw new IllegalArgumentException("Virtual loss must be at least 1: " + virtualLoss);
+        this.virtualLoss = virtualLoss;
+    }
+
+    /**
+     * Maximum tree size in nodes (about 18 bytes each), 262144 by default
+     */
+    public void setNodePoolSize(int nodes) {
+        if (nodes < 64) throw new IllegalArgumentException("Node pool too small: " + nodes);
+        this.poolSize = nodes;
+        this.firstChild = null;
+    }
+
+    /**
+     * Seeds the playout generators; searches are only repeatable with one thread
+     */
+    public void setSeed(long seed) { this.seed = seed; }
+
+    @Override
+    public int getAiPlayer() { return aiPlayer; }
+
+    /**
+     * Estimated win probability of the move chosen by the last makeMove, NaN if it found none
+     */
+    @Override
+    public double getLastBestValue() { return lastBestValue; }
+
+    /**
+     * Playouts run by the last search
+     */
+    public long getIterations() { return iterations.get(); }
+
+    /**
+     * Nodes the last search allocated from the pool
+     */
+    public int getNodesUsed() { return Math.min(nodesUsed.get(), poolSize); }
+
+    /**
+     * Ends the running search from another thread; it still returns its best move so far.
+     * Stays in effect until clearStop
+     */
+    public void requestStop() { stopRequested = true; }
+
+    public void clearStop() { stopRequested = false; }
+
+    @Override
+    public Piece makeMove(int roll) {
+        lastBestValue = Double.NaN;
+        iterations.set(0);
+        nodesUsed.set(0);
+        State root = new State(game.getState());
+        int[] legal = new int[7];
+        int count = root.legalMoves(roll, legal);
+        if (count == 0) return null;
+        List<Piece> pieces = game.getAllPieces();
+        if (count == 1) return pieces.get(legal[0]); // Nothing to decide
+
+        if (firstChild == null) {
+            firstChild = new int[poolSize];
+            childCount = new byte[poolSize];
+            move = new byte[poolSize];
+            visits = new int[poolSize];
+            score = new long[poolSize];
+        }
+        rootState = root;
+        rootRoll = roll;
+        nodesUsed.set(1);
+        initNode(0, (byte) roll);
+        deadline = timeBudgetMillis > 0 ? System.nanoTime() + timeBudgetMillis * 1_000_000L : 0;
+
+        runWorkers();
+
+        int first = firstChild[0];
+        if (first < 0) return pieces.get(legal[0]); // Stopped before the first playout
+        int best = first;
+        for (int c = first; c < first + childCount[0]; c++) {
+            if (visits[c] > visits[best]) best = c;
+        }
+        if (visits[best] > 0) lastBestValue = score[best] / (2.0 * visits[best]);
+        return pieces.get(move[best]);
+    }
+
+    private void runWorkers() {
+        if (threads == 1) {
+            search(new Worker(seed));
+            return;
+        }
+        if (workers == null) {
+            workers = Executors.newFixedThreadPool(threads - 1, r -> {
+                Thread t = new Thread(r, "mcts-worker");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        SplittableRandom seeds = new SplittableRandom(seed);
+        List<Future<?>> running = new ArrayList<>();
+        for (int i = 1; i < threads; i++) {
+            Worker worker = new Worker(seeds.nextLong());
+            running.add(workers.submit(() -> search(worker)));
+        }
+        try {
+            search(new Worker(seeds.nextLong()));
+        } finally {
+            for (Future<?> f : running) {
+                try {
+                    f.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    requestStop();
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Search thread failed", e.getCause());
+                }
+            }
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        if (workers != null) {
+            workers.shutdownNow();
+            workers = null;
+        }
+    }
+
+    private void search(Worker w) {
+        while (!stopRequested) {
+            long n = iterations.incrementAndGet();
+            if (iterationLimit > 0 && n > iterationLimit) {
+                iterations.decrementAndGet();
+                return;
+            }
+            if (deadline != 0 && (n & 15) == 0 && System.nanoTime() - deadline > 0) return;
+            iterate(w);
+        }
+    }
+
+    /**
+     * One selection / expansion / playout / backup pass
+     */
+    private void iterate(Worker w) {
+        State s = w.state;
+        s.copyFrom(rootState);
+        w.expanded = false;
+        int length = 0;
+        int node = 0;
+        int roll = rootRoll;
+        w.push(length++, node, 0);
+        INTS.getAndAdd(visits, node, virtualLoss);
+
+        while (true) {
+            // Decision node: the player to move has thrown roll
+            int first = expandDecision(node, s, roll, w);
+            if (first < 0) break;
+            int child = selectChild(node, first);
+            INTS.getAndAdd(visits, child, virtualLoss);
+            int mover = s.player;
+            w.push(length++, child, mover);
+            int piece = move[child];
+            if (piece == PASS || !Game.keepsTurn(s.apply(piece, roll))) s.player = 3 - s.player;
+            node = child;
+            roll = 0;
+            if (w.expanded || s.winner() != 0) break; // Grow by one level per playout
+
+            // Chance node: throw for whoever moves next
+            first = expandChance(node, w);
+            if (first < 0) break;
+            roll = stickThrow.roll(w.random);
+            child = first;
+            while (move[child] != roll) child++;
+            INTS.getAndAdd(visits, child, virtualLoss);
+            w.push(length++, child, 0);
+            node = child;
+            if (w.expanded) break;
+        }
+
+        int winner = playout(s, roll, w);
+        for (int i = 0; i < length; i++) {
+            int n = w.path[i];
+            INTS.getAndAdd(visits, n, 1 - virtualLoss);
+            int mover = w.movers[i];
+            if (mover != 0) {
+                LONGS.getAndAdd(score, n, winner == mover ? 2L : winner == 0 ? 1L : 0L);
+            }
+        }
+    }
+
+    private int expandDecision(int node, State s, int roll, Worker w) {
+        int first = (int) INTS.getAcquire(firstChild, node);
+        if (first != UNEXPANDED || !INTS.compareAndSet(firstChild, node, UNEXPANDED, EXPANDING)) return first;
+        int[] moves = w.moves;
+        int count = s.legalMoves(roll, moves);
+        int start = allocate(Math.max(count, 1));
+        if (start < 0) return markNoRoom(node);
+        if (count == 0) {
+            initNode(start, PASS);
+        } else {
+            for (int i = 0; i < count; i++) initNode(start + i, (byte) moves[i]);
+        }
+        childCount[node] = (byte) Math.max(count, 1);
+        INTS.setRelease(firstChild, node, start);
+        w.expanded = true;
+        return start;
+    }
+
+    private int expandChance(int node, Worker w) {
+        int first = (int) INTS.getAcquire(firstChild, node);
+        if (first != UNEXPANDED || !INTS.compareAndSet(firstChild, node, UNEXPANDED, EXPANDING)) return first;
+        int start = allocate(possibleRolls.length);
+        if (start < 0) return markNoRoom(node);
+        for (int i = 0; i < possibleRolls.length; i++) initNode(start + i, (byte) possibleRolls[i]);
+        childCount[node] = (byte) possibleRolls.length;
+        INTS.setRelease(firstChild, node, start);
+        w.expanded = true;
+        return start;
+    }
+
+    private int markNoRoom(int node) {
+        INTS.setRelease(firstChild, node, NO_ROOM);
+        return NO_ROOM;
+    }
+
+    private int allocate(int count) {
+        int start = nodesUsed.getAndAdd(count);
+        return start + count <= poolSize ? start : -1;
+    }
+
+    private void initNode(int node, byte nodeMove) {
+        move[node] = nodeMove;
+        childCount[node] = 0;
+        visits[node] = 0;
+        score[node] = 0;
+        firstChild[node] = UNEXPANDED;
+    }
+
+    /**
+     * UCT over the children of a decision node, unvisited children first
+     */
+    private int selectChild(int node, int first) {
+        int count = childCount[node];
+        double logVisits = Math.log(Math.max(1, (int) INTS.getVolatile(visits, node)));
+        int best = first;
+        double bestValue = Double.NEGATIVE_INFINITY;
+        for (int c = first; c < first + count; c++) {
+            int n = (int) INTS.getVolatile(visits, c);
+            if (n == 0) return c;
+            double mean = (long) LONGS.getVolatile(score, c) / (2.0 * n);
+            double value = mean + exploration * Math.sqrt(logVisits / n);
+            if (value > bestValue) {
+                bestValue = value;
+                best = c;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Playout moves to the end of the game (see State.playoutMove)
+     * @param roll Throw already made by the player to move, or 0
+     * @return The winner, or the player ahead if the playout was cut off (0 if level)
+     */
+    private int playout(State s, int roll, Worker w) {
+        for (int ply = 0; ply < MAX_PLAYOUT_PLIES; ply++) {
+            int winner = s.winner();
+            if (winner != 0) return winner;
+            if (roll == 0) roll = stickThrow.roll(w.random);
+            int count = s.legalMoves(roll, w.moves);
+            if (count == 0 || !Game.keepsTurn(s.apply(s.playoutMove(roll, w.moves, count, w.random), roll))) {
+                s.player = 3 - s.player;
+            }
+            roll = 0;
+        }
+        return s.leader();
+    }
+
+    /**
+     * Per-thread scratch space
+     */
+    private final class Worker {
+        final State state = new State();
+        final SplittableRandom random;
+        final int[] moves = new int[7];
+        int[] path = new int[256];
+        int[] movers = new int[256]; // Player who made the move into a node, 0 for other nodes
+        boolean expanded; // This iteration has added a node's children
+
+        Worker(long seed) {
+            this.random = new SplittableRandom(seed);
+        }
+
+        void push(int i, int node, int mover) {
+            if (i == path.length) {
+                path = Arrays.copyOf(path, i * 2);
+                movers = Arrays.copyOf(movers, i * 2);
+            }
+            path[i] = node;
+            movers[i] = mover;
+        }
+    }
+
+    /**
+     * Compact position: piece squares in Game.getAllPieces order.
+     * Moves follow ComputerPlayer's move generation and simulation exactly;
+     * turns pass as in Game (Game.keepsTurn).
+     */
+    private final class State {
+        final int[] position = new int[PIECES]; // -1 once exited
+        final boolean[] exitFlag = new boolean[PIECES];
+        int player1Exited;
+        int player2Exited;
+        int player;
+
+        State() {}
+
+        State(GameState state) {
+            for (int i = 0; i < PIECES; i++) {
+                position[i] = state.pieceSquare(i);
+                exitFlag[i] = state.pieceCanExitNextTurn(i);
+            }
+            player1Exited = state.getPlayer1Exited();
+            player2Exited = state.getPlayer2Exited();
+            player = state.getCurrentPlayer();
+        }
+
+        void copyFrom(State other) {
+            System.arraycopy(other.position, 0, position, 0, PIECES);
+            System.arraycopy(other.exitFlag, 0, exitFlag, 0, PIECES);
+            player1Exited = other.player1Exited;
+            player2Exited = other.player2Exited;
+            player = other.player;
+        }
+
+        int owner(int piece) { return piece < PIECES / 2 ? 1 : 2; }
+
+        int pieceAt(int square) {
+            for (int i = 0; i < PIECES; i++) {
+                if (position[i] == square) return i;
+            }
+            return -1;
+        }
+
+        int winner() {
+            if (player1Exited == 7) return 1;
+            if (player2Exited == 7) return 2;
+            return 0;
+        }
+
+        int leader() {
+            if (player1Exited != player2Exited) return player1Exited > player2Exited ? 1 : 2;
+            int progress = 0;
+            for (int i = 0; i < PIECES; i++) {
+                if (position[i] >= 0) progress += owner(i) == 1 ? position[i] : -position[i];
+            }
+            return progress > 0 ? 1 : progress < 0 ? 2 : 0;
+        }
+
+        /**
+         * Pieces the player to move can move with roll, written to moves
+         * @return How many
+         */
+        int legalMoves(int roll, int[] moves) {
+            int count = 0;
+            int from = player == 1 ? 0 : PIECES / 2;
+            for (int i = from; i < from + PIECES / 2; i++) {
+                int pos = position[i];
+                if (pos < 0) continue;
+                int rule = RuleTable.index(pos, roll, exitFlag[i]);
+                if ((rules.flags(rule) & RuleTable.UNPLAYABLE) != 0) continue;
+                int blocker = rules.blocker(rule);
+                if (blocker >= 0) {
+                    int occupying = pieceAt(blocker);
+                    if (occupying >= 0 && owner(occupying) == player) continue;
+                }
+                moves[count++] = i;
+            }
+            return count;
+        }
+
+        /**
+         * @return RuleTable flags of the move, plus Game.MOVE_REJECTED if nothing moved
+         */
+        int apply(int piece, int roll) {
+            int pos = position[piece];
+            int rule = RuleTable.index(pos, roll, exitFlag[piece]);
+            int flags = rules.flags(rule);
+
+            if ((flags & RuleTable.GATE_FAILED) != 0) {
+                position[piece] = rules.target(rule);
+                exitFlag[piece] = false;
+                return flags;
+            }
+            if ((flags & RuleTable.CLEARS_EXIT_FLAG) != 0) exitFlag[piece] = false;
+            if ((flags & RuleTable.BLOCKED) != 0) return flags | Game.MOVE_REJECTED;
+
+            if ((flags & RuleTable.EXIT) != 0) {
+                position[piece] = -1;
+                if (owner(piece) == 1) player1Exited++;
+                else player2Exited++;
+                return flags;
+            }
+
+            int landing = rules.landing(rule);
+            int occupying = pieceAt(landing);
+            if (occupying >= 0) {
+                if (owner(occupying) == owner(piece)) return flags | Game.MOVE_REJECTED;
+                position[occupying] = pos; // Swap
+            }
+
+            int target = rules.target(rule);
+            if (landing == rules.getRebirthSquare()) {
+                int p = pieceAt(landing);
+                if (p >= 0 && p != piece) target = findEmptyBeforeRebirth();
+            }
+            position[piece] = target;
+            if ((flags & RuleTable.SETS_EXIT_FLAG) != 0) exitFlag[piece] = true;
+            return flags;
+        }
+
+        /**
+         * Greedy playout policy: the move gaining the most ground, counting the
+         * ground an opponent loses to a swap; one move in PLAYOUT_RANDOM_ONE_IN
+         * is uniformly random. Plain random playouts barely depend on the position.
+         */
+        int playoutMove(int roll, int[] moves, int count, SplittableRandom random) {
+            if (count == 1) return moves[0];
+            if (random.nextInt(PLAYOUT_RANDOM_ONE_IN) == 0) return moves[random.nextInt(count)];
+            int best = moves[0];
+            int bestGain = Integer.MIN_VALUE;
+            for (int i = 0; i < count; i++) {
+                int piece = moves[i];
+                int pos = position[piece];
+                int rule = RuleTable.index(pos, roll, exitFlag[piece]);
+                int gain = (rules.flags(rule) & RuleTable.EXIT) != 0 ? Board.SIZE - pos : rules.target(rule) - pos;
+                int landing = rules.landing(rule);
+                if (landing >= 0) {
+                    int occupying = pieceAt(landing);
+                    if (occupying >= 0 && owner(occupying) != owner(piece)) gain += landing - pos;
+                }
+                if (gain > bestGain) {
+                    bestGain = gain;
+                    best = piece;
+                }
+            }
+            return best;
+        }
+
+        int findEmptyBeforeRebirth() {
+            for (int pos = rules.getRebirthSquare(); pos >= 0; pos--) {
+                if (pieceAt(pos) < 0) return pos;
+            }
+            return 0;
+        }
+    }
+}
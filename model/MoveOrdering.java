@@ -0,0 +1,95 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Move ordering for ComputerPlayer's decision nodes.
+ *
+ * Moves are tried in this order: the killer moves of the current depth,
+ * then exits, swaps (the opponent's piece is sent back) and exact landings
+ * on the House of Happiness, then by the history table, which counts how
+ * often a (square, roll) move was the best one, weighted by depth.
+ *
+ * Expectiminimax visits every move anyway, so ordering does not change any
+ * value. What it changes is how soon the best move is found, which is what
+ * a pruned search lives on: the "first move best" rate is the share of
+ * decision nodes whose first move was already the best one, i.e. where an
+ * alpha-beta style search would cut off on the first move.
+ */
+final class MoveOrdering {
+    private static final int KILLERS = 2;
+    private static final int KILLER_SCORE = 1 << 30;
+    private static final int EXIT_SCORE = 1 << 26;
+    private static final int SWAP_SCORE = 1 << 25;
+    private static final int HAPPINESS_SCORE = 1 << 24;
+    private static final int HISTORY_LIMIT = 1 << 23; // History stays below the tactical bonuses
+
+    private final int[] history = new int[Board.SIZE * (StickThrow.MAX_ROLL + 1)];
+    private int[][] killers = new int[0][]; // [depth][slot]: history index of the move, -1 if empty
+
+    private long orderedNodes = 0;
+    private long firstMoveBest = 0;
+
+    /**
+     * Starts a search of the given depth: fresh killers, history decays by half
+     */
+    void newSearch(int depth) {
+        killers = new int[depth + 1][KILLERS];
+        for (int[] slots : killers) Arrays.fill(slots, -1);
+        for (int i = 0; i < history.length; i++) history[i] >>= 1;
+    }
+
+    /**
+     * Higher scores are searched first
+     * @param flags RuleTable flags of the move
+     * @param target Square the piece ends on, -1 if it exits
+     * @param swap The landing square holds an opponent piece
+     */
+    int score(int depth, int from, int roll, int flags, int target, boolean swap, int happinessSquare) {
+        int move = index(from, roll);
+        int score = history[move];
+        if ((flags & RuleTable.EXIT) != 0) score += EXIT_SCORE;
+        if (swap) score += SWAP_SCORE;
+        if (target == happinessSquare) score += HAPPINESS_SCORE;
+        if (depth < killers.length) {
+            for (int slot : killers[depth]) {
+                if (slot == move) score += KILLER_SCORE;
+            }
+        }
+        return score;
+    }
+
+    /**
+     * Records the best move of a decision node with at least two moves
+     * @param firstWasBest The first move searched was (one of) the best
+     */
+    void recordBest(int depth, int from, int roll, boolean firstWasBest) {
+        orderedNodes++;
+        if (firstWasBest) firstMoveBest++;
+
+        int move = index(from, roll);
+        history[move] += depth * depth;
+        if (history[move] > HISTORY_LIMIT) {
+            for (int i = 0; i < history.length; i++) history[i] >>= 1;
+        }
+        if (depth < killers.length && killers[depth][0] != move) {
+            System.arraycopy(killers[depth], 0, killers[depth], 1, KILLERS - 1);
+            killers[depth][0] = move;
+        }
+    }
+
+    long getOrderedNodes() { return orderedNodes; }
+
+    double getFirstMoveBestRate() {
+        return orderedNodes == 0 ? Double.NaN : (double) firstMoveBest / orderedNodes;
+    }
+
+    void resetStats() {
+        orderedNodes = 0;
+        firstMoveBest = 0;
+    }
+
+    private static int index(int from, int roll) {
+        return from * (StickThrow.MAX_ROLL + 1) + roll;
+    }
+}
@@ -0,0 +1,83 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Perft: counts the leaf positions reached after a number of throws, with
+ * every roll expanded at each throw and a pass when no piece can move. A
+ * won position is a leaf. Two move generators are counted separately so
+ * their rules can be compared:
+ *
+ *   SEARCH  ComputerPlayer's snapshot move generation; extra turns by Game.keepsTurn
+ *   GAME    Game.applyMove as GameController plays it: every move it does
+ *           not reject is legal, extra turns by Game.keepsTurn
+ *
+ * Positions are GameStates, so two pieces sharing Rebirth (which Game
+ * allows after Water or a failed gate) are counted as they are played.
+ * Moves are counted once per square they start from.
+ */
+public final class Perft {
+
+    public enum Generator { SEARCH, GAME }
+
+    /**
+     * A position reached by one move, or a pass (square -1)
+     */
+    public record Successor(int square, GameState position) {}
+
+    private Perft() {}
+
+    public static long count(Generator generator, GameState position, int depth, StickThrow stickThrow, RuleTable rules) {
+        return switch (generator) {
+            case SEARCH -> searcher(Game.fromState(position, stickThrow, rules)).perft(depth);
+            case GAME -> countGame(position, depth, stickThrow, rules);
+        };
+    }
+
+    public static List<Successor> successors(Generator generator, GameState position, int roll,
+                                             StickThrow stickThrow, RuleTable rules) {
+        return switch (generator) {
+            case SEARCH -> searcher(Game.fromState(position, stickThrow, rules)).perftSuccessors(roll);
+            case GAME -> gameSuccessors(position, roll, stickThrow, rules);
+        };
+    }
+
+    private static ComputerPlayer searcher(Game game) {
+        ComputerPlayer player = new ComputerPlayer(game, game.getCurrentPlayer());
+        player.setVerbose(false);
+        return player;
+    }
+
+    private static long countGame(GameState position, int depth, StickThrow stickThrow, RuleTable rules) {
+        if (depth == 0 || position.winner() != 0) return 1;
+        long leaves = 0;
+        for (int roll = StickThrow.MIN_ROLL; roll <= StickThrow.MAX_ROLL; roll++) {
+            for (Successor successor : gameSuccessors(position, roll, stickThrow, rules)) {
+                leaves += countGame(successor.position(), depth - 1, stickThrow, rules);
+            }
+        }
+        return leaves;
+    }
+
+    private static List<Successor> gameSuccessors(GameState position, int roll, StickThrow stickThrow, RuleTable rules) {
+        List<Successor> successors = new ArrayList<>();
+        boolean[] tried = new boolean[Board.SIZE];
+        for (int i = 0; i < GameState.PIECES; i++) {
+            int square = position.pieceSquare(i);
+            if (GameState.pieceOwner(i) != position.getCurrentPlayer() || square < 0 || tried[square]) continue;
+            tried[square] = true;
+            Game next = Game.fromState(position, stickThrow, rules);
+            int flags = next.applyMove(next.getAllPieces().get(i), roll);
+            if ((flags & Game.MOVE_REJECTED) != 0) continue;
+            if (!Game.keepsTurn(flags)) next.nextPlayer();
+            successors.add(new Successor(square, next.getState()));
+        }
+        if (successors.isEmpty()) {
+            Game next = Game.fromState(position, stickThrow, rules);
+            next.nextPlayer();
+            successors.add(new Successor(-1, next.getState()));
+        }
+        return successors;
+    }
+}
@@ -0,0 +1,106 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Text form of a game position: one character per square followed by the
+ * player to move, e.g. "rbrbrbrbrbrbrb................ 1".
+ * '.' is an empty square, 'r' a player 1 piece, 'b' a player 2 piece;
+ * upper case marks a piece that has landed on an exit-gated house.
+ * Pieces missing from the board have exited.
+ */
+public final class PositionFormat {
+    public static final String START = "rbrbrbrbrbrbrb................ 1";
+
+    private static final int PIECES_PER_PLAYER = 7;
+
+    private PositionFormat() {}
+
+    /**
+     * @throws IllegalArgumentException if two pieces share a square (Game
+     *         allows it on Rebirth), which this format cannot show
+     */
+    public static String encode(Game game) {
+        char[] squares = new char[Board.SIZE];
+        Arrays.fill(squares, '.');
+        for (Piece p : game.getAllPieces()) {
+            int pos = p.getPosition();
+            if (pos < 0 || pos >= Board.SIZE) continue;
+            if (squares[pos] != '.') {
+                throw new IllegalArgumentException("Two pieces share house " + formatMove(pos) + ", which PositionFormat cannot show");
+            }
+            char c = p.getOwner() == 1 ? 'r' : 'b';
+            squares[pos] = p.canExitNextTurn() ? Character.toUpperCase(c) : c;
+        }
+        return new String(squares) + " " + game.getCurrentPlayer();
+    }
+
+    public static Game decode(String text) {
+        return decode(text, StickThrow.UNIFORM, RuleTable.standard());
+    }
+
+    /**
+     * Builds a game in the given position
+     * @throws IllegalArgumentException if the text is not a valid position
+     */
+    public static Game decode(String text, StickThrow stickThrow, RuleTable rules) {
+        String[] parts = text.trim().split("\\s+");
+        if (parts.length != 2 || parts[0].length() != Board.SIZE) {
+            throw new IllegalArgumentException("Expected " + Board.SIZE + " squares and the player to move: " + text);
+        }
+        String squares = parts[0];
+        int toMove;
+        switch (parts[1]) {
+            case "1" -> toMove = 1;
+            case "2" -> toMove = 2;
+            default -> throw new IllegalArgumentException("Player to move must be 1 or 2: " + parts[1]);
+        }
+
+        Game game = new Game(stickThrow, rules);
+        List<Piece> free1 = new ArrayList<>();
+        List<Piece> free2 = new ArrayList<>();
+        for (Piece p : game.getAllPieces()) {
+            p.setPosition(-1);
+            (p.getOwner() == 1 ? free1 : free2).add(p);
+        }
+        for (int square = 0; square < Board.SIZE; square++) {
+            char c = squares.charAt(square);
+            if (c == '.') continue;
+            List<Piece> free;
+            switch (Character.toLowerCase(c)) {
+                case 'r' -> free = free1;
+                case 'b' -> free = free2;
+                default -> throw new IllegalArgumentException("Unknown square character '" + c + "' in " + text);
+            }
+            if (free.isEmpty()) {
+                throw new IllegalArgumentException("More than " + PIECES_PER_PLAYER + " pieces for one player: " + text);
+            }
+            Piece piece = free.remove(free.size() - 1);
+            piece.setPosition(square);
+            piece.setCanExitNextTurn(Character.isUpperCase(c));
+        }
+        for (int i = 0; i < free1.size(); i++) game.incrementPlayerExited(1);
+        for (int i = 0; i < free2.size(); i++) game.incrementPlayerExited(2);
+        if (game.getCurrentPlayer() != toMove) game.nextPlayer();
+        game.publishState(0); // The pieces were placed directly
+        return game;
+    }
+
+    /**
+     * Move notation: the house number (1-30) of the piece that moves
+     */
+    public static String formatMove(int fromSquare) {
+        return String.valueOf(fromSquare + 1);
+    }
+
+    /**
+     * Parses a move written by formatMove back to its square
+     */
+    public static int parseMove(String text) {
+        int square = Integer.parseInt(text.trim()) - 1;
+        if (square < 0 || square >= Board.SIZE) throw new IllegalArgumentException("No such house: " + text);
+        return square;
+    }
+}
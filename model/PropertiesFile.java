@@ -0,0 +1,31 @@
+package model;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+
+/**
+ * Writes properties files that other processes may read while they are
+ * rewritten (statistics snapshots, tuner checkpoints).
+ */
+public final class PropertiesFile {
+
+    private PropertiesFile() {
+    }
+
+    /**
+     * Writes props next to file, then moves them into place in one step, so
+     * a reader never sees half of the file
+     */
+    public static void storeAtomically(Properties props, Path file, String comment) throws IOException {
+        Path absolute = file.toAbsolutePath();
+        Path temp = absolute.resolveSibling(absolute.getFileName() + ".tmp");
+        try (Writer out = Files.newBufferedWriter(temp)) {
+            props.store(out, comment);
+        }
+        Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -0,0 +1,201 @@
+package model;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Board rules compiled into a [square][roll] transition table.
+ * Every (square, roll, exit flag) combination is resolved once when the
+ * rules are loaded, so move generation is a lookup instead of a chain of
+ * special-house checks. Rule variants are plain properties files
+ * (see model/rules/kendall.properties).
+ */
+public final class RuleTable {
+    // Transition flags
+    public static final int BLOCKED = 1;              // Would jump over the House of Happiness
+    public static final int EXIT = 1 << 1;            // Piece leaves the board
+    public static final int WATER_RESET = 1 << 2;     // Lands on Water, goes back to Rebirth
+    public static final int SETS_EXIT_FLAG = 1 << 3;  // Lands on an exit-gated house
+    public static final int CLEARS_EXIT_FLAG = 1 << 4; // Leaves an exit-gated house with the right throw
+    public static final int GATE_FAILED = 1 << 5;     // Wrong throw from an exit-gated house, back to Rebirth
+    public static final int UNPLAYABLE = 1 << 6;      // Never a legal move (Game.applyMove rejects it)
+    public static final int EXTRA_TURN = 1 << 7;      // Roll grants another throw
+
+    public static final String STANDARD_RULES = "/model/rules/kendall.properties";
+    private static RuleTable standard;
+
+    private static final int ROLLS = StickThrow.MAX_ROLL + 1; // Slot 0 unused
+
+    private final String name;
+    private final int rebirthSquare;
+    private final int happinessSquare;
+    private final int waterSquare;
+    private final int[] gateRolls = new int[Board.SIZE]; // 0 = not gated, -1 = any roll exits
+    private final boolean[] extraTurnRolls = new boolean[ROLLS];
+    private final String[] houseNames = new String[Board.SIZE];
+
+    private final int[] flags = new int[2 * Board.SIZE * ROLLS];
+    private final int[] landing = new int[flags.length];  // Square where swaps happen, -1 if none
+    private final int[] target = new int[flags.length];   // Final square, -1 if the piece exits
+    private final int[] blocker = new int[flags.length];  // Square an own piece must not hold, -1 if none
+
+    private RuleTable(Properties props) {
+        this.name = props.getProperty("name", "unnamed");
+        this.rebirthSquare = requireSquare(props, "rebirth");
+        this.happinessSquare = requireSquare(props, "happiness");
+        this.waterSquare = requireSquare(props, "water");
+
+        for (String gate : require(props, "gates").split(",")) {
+            String[] parts = gate.trim().split(":");
+            if (parts.length != 2) throw new IllegalArgumentException("Malformed gate entry: " + gate);
+            int square = parseSquare(parts[0].trim());
+            gateRolls[square] = "*".equals(parts[1].trim()) ? -1 : parseRoll(parts[1].trim());
+        }
+        for (String roll : require(props, "extraTurnRolls").split(",")) {
+            extraTurnRolls[parseRoll(roll.trim())] = true;
+        }
+        String names = props.getProperty("names", "");
+        if (!names.isBlank()) {
+            for (String entry : names.split(",")) {
+                String[] parts = entry.trim().split(":", 2);
+                if (parts.length != 2) throw new IllegalArgumentException("Malformed name entry: " + entry);
+                houseNames[parseSquare(parts[0].trim())] = parts[1].trim();
+            }
+        }
+
+        for (int exitFlag = 0; exitFlag < 2; exitFlag++) {
+            for (int square = 0; square < Board.SIZE; square++) {
+                for (int roll = StickThrow.MIN_ROLL; roll <= StickThrow.MAX_ROLL; roll++) {
+                    compile(index(square, roll, exitFlag == 1), square, roll, exitFlag == 1);
+                }
+            }
+        }
+    }
+
+    private void compile(int i, int square, int roll, boolean exitFlag) {
+        int raw = square + roll;
+        int f = extraTurnRolls[roll] ? EXTRA_TURN : 0;
+        landing[i] = -1;
+        blocker[i] = -1;
+        target[i] = square;
+
+        // Three Truths / Re-Atoum / Horus
+        int gate = gateRolls[square];
+        if (exitFlag && gate != 0) {
+            if (gate > 0 && roll != gate) {
+                // A failed throw is always a legal move, as Game.applyMove plays it: the piece
+                // goes back to Rebirth wherever the throw would have taken it
+                f |= GATE_FAILED;
+                target[i] = rebirthSquare;
+                flags[i] = f;
+                return;
+            }
+            f |= CLEARS_EXIT_FLAG;
+        }
+
+        // House of Happiness must be landed on exactly
+        if (square < happinessSquare && raw > happinessSquare) {
+            flags[i] = f | BLOCKED | UNPLAYABLE;
+            return;
+        }
+
+        if (raw >= Board.SIZE) {
+            target[i] = -1;
+            flags[i] = f | EXIT;
+            return;
+        }
+
+        landing[i] = raw;
+        blocker[i] = raw;
+        target[i] = raw;
+        if (raw == waterSquare) {
+            f |= WATER_RESET;
+            target[i] = rebirthSquare;
+        }
+        if (gateRolls[raw] != 0) f |= SETS_EXIT_FLAG;
+        flags[i] = f;
+    }
+
+    /**
+     * The rules the game has always been played with
+     */
+    public static synchronized RuleTable standard() {
+        if (standard == null) {
+            try (InputStream in = RuleTable.class.getResourceAsStream(STANDARD_RULES)) {
+                if (in == null) throw new IllegalStateException("Missing rules resource " + STANDARD_RULES);
+                standard = load(in);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return standard;
+    }
+
+    public static RuleTable load(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            return load(in);
+        }
+    }
+
+    public static RuleTable load(InputStream in) throws IOException {
+        Properties props = new Properties();
+        props.load(in);
+        return new RuleTable(props);
+    }
+
+    public static int index(int square, int roll, boolean exitFlag) {
+        return ((exitFlag ? Board.SIZE : 0) + square) * ROLLS + roll;
+    }
+
+    public int flags(int index) { return flags[index]; }
+    public int landing(int index) { return landing[index]; }
+    public int target(int index) { return target[index]; }
+    public int blocker(int index) { return blocker[index]; }
+
+    public String getName() { return name; }
+    public int getRebirthSquare() { return rebirthSquare; }
+    public int getHappinessSquare() { return happinessSquare; }
+    public int getWaterSquare() { return waterSquare; }
+    public boolean isExitGated(int square) { return gateRolls[square] != 0; }
+    public boolean grantsExtraTurn(int roll) { return extraTurnRolls[roll]; }
+
+    /**
+     * Display name of a special house, or null for an ordinary square
+     */
+    public String getHouseName(int square) {
+        return square >= 0 && square < Board.SIZE ? houseNames[square] : null;
+    }
+
+    private static String require(Properties props, String key) {
+        String value = props.getProperty(key);
+        if (value == null) throw new IllegalArgumentException("Rules file is missing '" + key + "'");
+        return value;
+    }
+
+    private static int requireSquare(Properties props, String key) {
+        return parseSquare(require(props, key).trim());
+    }
+
+    private static int parseSquare(String text) {
+        int square = Integer.parseInt(text);
+        if (square < 0 || square >= Board.SIZE) throw new IllegalArgumentException("Square out of range: " + text);
+        return square;
+    }
+
+    private static int parseRoll(String text) {
+        int roll = Integer.parseInt(text);
+        if (roll < StickThrow.MIN_ROLL || roll > StickThrow.MAX_ROLL) {
+            throw new IllegalArgumentException("Roll out of range: " + text);
+        }
+        return roll;
+    }
+
+    @Override
+    public String toString() { return name; }
+}
@@ -0,0 +1,157 @@
+package model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Streams the nodes explored by ComputerPlayer to a compact binary file.
+ * Records are packed into fixed-size chunks on the search thread and handed
+ * to a background writer through a bounded queue. The search thread never
+ * waits: when the writer falls behind, chunks are dropped and counted.
+ *
+ * File layout: int magic, int version, then one record per node
+ * (int id, int parent, byte type, byte roll, byte move, double value),
+ * big-endian. Nodes are written when their value is known, so children
+ * come before their parent. A root has parent -1; roll/move are -1 when
+ * they do not apply. Not thread-safe: use one exporter per search thread.
+ */
+public final class SearchTreeExporter implements AutoCloseable {
+    public static final int MAGIC = 0x534E5458; // "SNTX"
+    public static final int VERSION = 1;
+    public static final int RECORD_BYTES = 4 + 4 + 1 + 1 + 1 + 8;
+
+    // Node types
+    public static final byte MAX = 0;
+    public static final byte MIN = 1;
+    public static final byte CHANCE = 2;
+    public static final byte LEAF = 3;
+
+    private static final ByteBuffer END = ByteBuffer.allocate(0);
+
+    private final FileChannel channel;
+    private final ArrayBlockingQueue<ByteBuffer> filled;
+    private final ArrayBlockingQueue<ByteBuffer> free;
+    private final Thread writer;
+    private final AtomicLong nodesWritten = new AtomicLong();
+    private final AtomicLong nodesDropped = new AtomicLong();
+    private volatile IOException writeError;
+    private ByteBuffer current;
+    private int nextId = 0;
+    private boolean closed = false;
+
+    public SearchTreeExporter(Path file) throws IOException {
+        this(file, 64 * 1024, 32);
+    }
+
+    /**
+     * @param chunkBytes Size of one chunk handed to the writer
+     * @param chunks Number of chunks in flight; bounds the memory used
+     */
+    public SearchTreeExporter(Path file, int chunkBytes, int chunks) throws IOException {
+        if (chunkBytes < RECORD_BYTES || chunks < 2) {
+            throw new IllegalArgumentException("Need at least 2 chunks of " + RECORD_BYTES + " bytes");
+        }
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        ByteBuffer header = ByteBuffer.allocate(8).putInt(MAGIC).putInt(VERSION).flip();
+        while (header.hasRemaining()) channel.write(header);
+
+        this.filled = new ArrayBlockingQueue<>(chunks + 1);
+        this.free = new ArrayBlockingQueue<>(chunks);
+        for (int i = 1; i < chunks; i++) free.add(ByteBuffer.allocate(chunkBytes - chunkBytes % RECORD_BYTES));
+        this.current = ByteBuffer.allocate(chunkBytes - chunkBytes % RECORD_BYTES);
+
+        this.writer = new Thread(this::writeLoop, "search-tree-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Reserves the id of a node about to be searched
+     */
+    public int nextNodeId() {
+        return nextId++;
+    }
+
+    /**
+     * Records a finished node. Never blocks.
+     */
+    public void node(int id, int parent, byte type, int roll, int move, double value) {
+        if (current == null) {
+            current = free.poll();
+            if (current == null) {
+                nodesDropped.incrementAndGet();
+                return;
+            }
+        }
+        current.putInt(id).putInt(parent).put(type).put((byte) roll).put((byte) move).putDouble(value);
+        if (current.remaining() < RECORD_BYTES) {
+            handOff();
+        }
+    }
+
+    private void handOff() {
+        ByteBuffer chunk = current;
+        current = null;
+        int records = chunk.position() / RECORD_BYTES;
+        chunk.flip();
+        if (filled.offer(chunk)) {
+            nodesWritten.addAndGet(records);
+        } else {
+            nodesDropped.addAndGet(records);
+            chunk.clear();
+            free.offer(chunk);
+        }
+    }
+
+    private void writeLoop() {
+        try {
+            while (true) {
+                ByteBuffer chunk = filled.take();
+                if (chunk == END) break;
+                try {
+                    while (chunk.hasRemaining()) channel.write(chunk);
+                } catch (IOException e) {
+                    writeError = e;
+                }
+                chunk.clear();
+                free.offer(chunk);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public long getNodesWritten() { return nodesWritten.get(); }
+    public long getNodesDropped() { return nodesDropped.get(); }
+
+    /**
+     * Flushes the last partial chunk and waits for the writer to finish
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        try {
+            if (current != null && current.position() > 0) {
+                int records = current.position() / RECORD_BYTES;
+                current.flip();
+                filled.put(current);
+                nodesWritten.addAndGet(records);
+                current = null;
+            }
+            filled.put(END);
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            channel.close();
+        }
+        if (writeError != null) throw writeError;
+    }
+}
@@ -0,0 +1,48 @@
+package model;
+
+import java.util.function.Consumer;
+
+/**
+ * Plays a whole game between two computer players without the GUI,
+ * following the same turn rules as GameController: a player with no legal
+ * move passes, 1/3/5 throw again unless the move failed an exit gate.
+ */
+public final class SelfPlay {
+
+    private SelfPlay() {}
+
+    /**
+     * @param maxTurns Turns (throws) before the game is abandoned
+     * @return The winner (1 or 2), or 0 if the game hit maxTurns
+     */
+    public static int play(Game game, ComputerStrategy player1, ComputerStrategy player2, int maxTurns) {
+        return play(game, player1, player2, maxTurns, state -> {});
+    }
+
+    /**
+     * As play, handing every position to turnStart before its throw
+     */
+    public static int play(Game game, ComputerStrategy player1, ComputerStrategy player2, int maxTurns,
+                           Consumer<GameState> turnStart) {
+        for (int turn = 0; turn < maxTurns; turn++) {
+            int winner = game.checkWinner();
+            if (winner != 0) return winner;
+            turnStart.accept(game.getState());
+
+            int roll = game.rollSticks();
+            ComputerStrategy mover = game.getCurrentPlayer() == 1 ? player1 : player2;
+            Piece piece = mover.makeMove(roll);
+            if (piece == null) {
+                game.nextPlayer(); // No valid move: turn skipped
+                continue;
+            }
+            int flags = game.applyMove(piece, roll);
+            if ((flags & Game.MOVE_REJECTED) != 0) {
+                throw new IllegalStateException("Player " + mover.getAiPlayer() + " chose an illegal move from "
+                        + piece.getPosition() + " with roll " + roll + " in " + game.getState());
+            }
+            if (!Game.keepsTurn(flags)) game.nextPlayer();
+        }
+        return game.checkWinner();
+    }
+}
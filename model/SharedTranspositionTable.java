@@ -0,0 +1,136 @@
+package model;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Transposition table stored off-heap in a MemorySegment, for sharing
+ * between ComputerPlayers searching on different threads (for instance all
+ * games of one Tournament variant, or successive SenetEngine searches).
+ * The Java heap only holds this object, whatever the size of the table;
+ * the memory counts against -XX:MaxDirectMemorySize (by default -Xmx).
+ *
+ * The table is split into 64-byte buckets of four 16-byte entries. An entry
+ * holds (key ^ value bits, value bits) and is written without locks: two
+ * threads storing into the same entry at once can leave a mix of both
+ * writes, but such an entry no longer passes the XOR check on the next
+ * probe and reads as a miss. A hit therefore always returns a value some
+ * search stored for that key.
+ *
+ * Values are from the searching player's point of view and depend on its
+ * chance settings, so ComputerPlayer mixes those into its keys. Players
+ * sharing a table must use the same rules and stick model. Closing the
+ * table frees its memory; it must not be probed afterwards.
+ */
+public final class SharedTranspositionTable implements AutoCloseable {
+    private static final int ENTRY_BYTES = 16;
+    private static final int BUCKET_ENTRIES = 4;
+    private static final int BUCKET_BYTES = ENTRY_BYTES * BUCKET_ENTRIES;
+    private static final int OCCUPANCY_SAMPLE = 1000; // Buckets looked at by getOccupancy
+
+    private final Arena arena;
+    private final MemorySegment segment;
+    private final long bucketMask;
+    private final LongAdder probes = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder stores = new LongAdder();
+    private final LongAdder collisions = new LongAdder();
+
+    /**
+     * @param megabytes Table size; rounded down to a power of two number of buckets
+     */
+    public SharedTranspositionTable(int megabytes) {
+        if (megabytes < 1) throw new IllegalArgumentException("Table size must be at least 1 MB: " + megabytes);
+        long buckets = Long.highestOneBit(((long) megabytes << 20) / BUCKET_BYTES);
+        this.arena = Arena.ofShared();
+        this.segment = arena.allocate(buckets * BUCKET_BYTES, BUCKET_BYTES); // Zeroed: every entry empty
+        this.bucketMask = buckets - 1;
+    }
+
+    /**
+     * @param key A TranspositionTable.nodeKey
+     * @return The stored value, or NaN if the key is not in the table
+     */
+    double probe(long key) {
+        probes.increment();
+        long bucket = bucketOffset(key);
+        for (int i = 0; i < BUCKET_ENTRIES; i++) {
+            long offset = bucket + (long) i * ENTRY_BYTES;
+            long data = segment.get(ValueLayout.JAVA_LONG, offset + 8);
+            if ((segment.get(ValueLayout.JAVA_LONG, offset) ^ data) == key) {
+                hits.increment();
+                return Double.longBitsToDouble(data);
+            }
+        }
+        return Double.NaN;
+    }
+
+    /**
+     * Stores into the entry already holding key, else an empty entry of the
+     * bucket, else replaces the entry picked by the key's top bits
+     */
+    void store(long key, double value) {
+        stores.increment();
+        long data = Double.doubleToRawLongBits(value);
+        long bucket = bucketOffset(key);
+        long target = -1;
+        for (int i = 0; i < BUCKET_ENTRIES && target < 0; i++) {
+            long offset = bucket + (long) i * ENTRY_BYTES;
+            long check = segment.get(ValueLayout.JAVA_LONG, offset);
+            long stored = segment.get(ValueLayout.JAVA_LONG, offset + 8);
+            if ((check ^ stored) == key || (check == 0 && stored == 0)) target = offset;
+        }
+        if (target < 0) {
+            collisions.increment();
+            target = bucket + (key >>> 62) * ENTRY_BYTES;
+        }
+        segment.set(ValueLayout.JAVA_LONG, target, key ^ data);
+        segment.set(ValueLayout.JAVA_LONG, target + 8, data);
+    }
+
+    private long bucketOffset(long key) {
+        // nodeKey is well mixed; the top bits pick the victim entry, the low bits the bucket
+        return (key & bucketMask) * BUCKET_BYTES;
+    }
+
+    /**
+     * Empties the table; not to be called while searches are using it
+     */
+    public void clear() {
+        segment.fill((byte) 0);
+    }
+
+    @Override
+    public void close() {
+        arena.close();
+    }
+
+    public long getProbes() { return probes.sum(); }
+
+    public long getHits() { return hits.sum(); }
+
+    public long getStores() { return stores.sum(); }
+
+    /**
+     * Stores that found their bucket full and replaced another key
+     */
+    public long getCollisions() { return collisions.sum(); }
+
+    /**
+     * Share of used entries, sampled from the first buckets of the table
+     */
+    public double getOccupancy() {
+        long buckets = Math.min(bucketMask + 1, OCCUPANCY_SAMPLE);
+        long used = 0;
+        for (long offset = 0; offset < buckets * BUCKET_BYTES; offset += ENTRY_BYTES) {
+            if (segment.get(ValueLayout.JAVA_LONG, offset) != 0 || segment.get(ValueLayout.JAVA_LONG, offset + 8) != 0) {
+                used++;
+            }
+        }
+        return (double) used / (buckets * BUCKET_ENTRIES);
+    }
+
+    public long getSizeBytes() { return segment.byteSize(); }
+}
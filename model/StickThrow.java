@@ -0,0 +1,118 @@
+package model;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Probability model for a throw of the sticks.
+ * Outcomes are the move values 1-5; their probabilities are precomputed
+ * once so chance nodes can weight by them without recomputing.
+ */
+public final class StickThrow {
+    public static final int MIN_ROLL = 1;
+    public static final int MAX_ROLL = 5;
+
+    /** Every value 1-5 equally likely */
+    public static final StickThrow UNIFORM = of("uniform", 1, 1, 1, 1, 1);
+
+    /**
+     * Four two-sided sticks: the roll is the number of flat sides up,
+     * no flat side up counts as 5 (weights 4, 6, 4, 1, 1 out of 16)
+     */
+    public static final StickThrow FOUR_STICKS = of("four-sticks", 4, 6, 4, 1, 1);
+
+    private final String name;
+    private final double[] probabilities; // index = roll - 1
+    private final double[] cumulative;
+    private final int[] rollsByProbability; // most likely roll first
+
+    private StickThrow(String name, double[] weights) {
+        this.name = name;
+        this.probabilities = new double[MAX_ROLL];
+        this.cumulative = new double[MAX_ROLL];
+
+        double total = 0.0;
+        for (double w : weights) {
+            if (w < 0) throw new IllegalArgumentException("Negative weight in stick model: " + w);
+            total += w;
+        }
+        if (total <= 0) throw new IllegalArgumentException("Stick model has no possible outcome");
+
+        double sum = 0.0;
+        for (int i = 0; i < MAX_ROLL; i++) {
+            probabilities[i] = weights[i] / total;
+            sum += probabilities[i];
+            cumulative[i] = sum;
+        }
+        cumulative[MAX_ROLL - 1] = 1.0;
+
+        // Stable sort by descending probability, ties keep roll order
+        rollsByProbability = new int[MAX_ROLL];
+        boolean[] used = new boolean[MAX_ROLL];
+        for (int k = 0; k < MAX_ROLL; k++) {
+            int best = -1;
+            for (int i = 0; i < MAX_ROLL; i++) {
+                if (!used[i] && (best < 0 || probabilities[i] > probabilities[best])) best = i;
+            }
+            used[best] = true;
+            rollsByProbability[k] = best + 1;
+        }
+    }
+
+    /**
+     * Creates a model from relative weights for rolls 1-5
+     */
+    public static StickThrow of(String name, double... weights) {
+        if (weights.length != MAX_ROLL) {
+            throw new IllegalArgumentException("Expected " + MAX_ROLL + " weights, got " + weights.length);
+        }
+        return new StickThrow(name, weights);
+    }
+
+    /**
+     * Looks up a built-in model by name ("uniform" or "four-sticks")
+     */
+    public static StickThrow byName(String name) {
+        if (UNIFORM.name.equals(name)) return UNIFORM;
+        if (FOUR_STICKS.name.equals(name)) return FOUR_STICKS;
+        throw new IllegalArgumentException("Unknown stick model: " + name);
+    }
+
+    public String getName() { return name; }
+
+    public double probability(int roll) {
+        return probabilities[roll - 1];
+    }
+
+    /**
+     * Throws the sticks once
+     */
+    public int roll(RandomGenerator random) {
+        double u = random.nextDouble();
+        for (int i = 0; i < MAX_ROLL - 1; i++) {
+            if (u < cumulative[i]) return i + 1;
+        }
+        return MAX_ROLL;
+    }
+
+    /**
+     * Rolls a chance node has to expand so that the probability mass of the
+     * skipped rolls stays at or below maxSkippedMass. Most likely rolls come first.
+     * With maxSkippedMass = 0 every possible roll is returned.
+     */
+    public int[] rollsToExpand(double maxSkippedMass) {
+        int count = MAX_ROLL;
+        double skipped = 0.0;
+        while (count > 1) {
+            double p = probabilities[rollsByProbability[count - 1] - 1];
+            if (p > 0 && skipped + p > maxSkippedMass) break;
+            skipped += p;
+            count--;
+        }
+        int[] rolls = new int[count];
+        System.arraycopy(rollsByProbability, 0, rolls, 0, count);
+        return rolls;
+    }
+
+    @Override
+    public String toString() { return name; }
+}
@@ -0,0 +1,41 @@
+package model;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts per bucket, kept in several copies (stripes) of which each thread
+ * writes one, so threads recording at the same time rarely touch the same
+ * cache line. Reading sums the stripes; counts added while a read is in
+ * progress may or may not be included.
+ */
+final class StripedHistogram {
+    private static final int STRIPES = Math.min(64, Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1) * 2);
+    private static final int LINE = 16; // Longs per 128 bytes, so stripes never share a cache line
+
+    private final int buckets;
+    private final int stride;
+    private final AtomicLongArray counts;
+
+    StripedHistogram(int buckets) {
+        this.buckets = buckets;
+        this.stride = (buckets + LINE - 1) / LINE * LINE;
+        this.counts = new AtomicLongArray(STRIPES * stride);
+    }
+
+    void increment(int bucket) {
+        counts.getAndIncrement(stripe() * stride + Math.min(bucket, buckets - 1));
+    }
+
+    long[] sum() {
+        long[] total = new long[buckets];
+        for (int s = 0; s < STRIPES; s++) {
+            for (int b = 0; b < buckets; b++) total[b] += counts.get(s * stride + b);
+        }
+        return total;
+    }
+
+    private static int stripe() {
+        long id = Thread.currentThread().threadId();
+        return (int) ((id * 0x9E3779B97F4A7C15L) >>> 58) & (STRIPES - 1);
+    }
+}
@@ -0,0 +1,90 @@
+package model;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Exact search results of ComputerPlayer keyed by position, player to move,
+ * remaining depth and node type. Entries only ever hold fully searched
+ * values, so a hit returns exactly what searching the node again would.
+ * The table lives as long as its ComputerPlayer, so later turns of the same
+ * game are answered from earlier searches wherever the same node recurs.
+ *
+ * One entry per slot, newest result wins. Keys are 64-bit Zobrist hashes.
+ */
+final class TranspositionTable {
+    private static final long[] PIECE_KEYS = new long[2 * 2 * Board.SIZE]; // [owner][exit flag][square]
+    private static final long[] EXITED_KEYS = new long[2 * 8];              // [owner][pieces exited]
+    private static final long PLAYER_2_KEY;
+    private static final long MAX_NODE_KEY;
+
+    static {
+        SplittableRandom random = new SplittableRandom(0x5E4E7L);
+        for (int i = 0; i < PIECE_KEYS.length; i++) PIECE_KEYS[i] = random.nextLong();
+        for (int i = 0; i < EXITED_KEYS.length; i++) EXITED_KEYS[i] = random.nextLong();
+        PLAYER_2_KEY = random.nextLong();
+        MAX_NODE_KEY = random.nextLong();
+    }
+
+    private final long[] keys;
+    private final double[] values;
+    private final int mask;
+    private long probes = 0;
+    private long hits = 0;
+
+    /**
+     * @param entries Rounded down to a power of two, at least 16
+     */
+    TranspositionTable(int entries) {
+        int size = Integer.highestOneBit(Math.max(entries, 16));
+        this.keys = new long[size];
+        this.values = new double[size];
+        this.mask = size - 1;
+    }
+
+    static long pieceKey(int owner, boolean exitFlag, int square) {
+        return PIECE_KEYS[((owner - 1) * 2 + (exitFlag ? 1 : 0)) * Board.SIZE + square];
+    }
+
+    /**
+     * Key of a node from the Zobrist hash of its pieces
+     */
+    static long nodeKey(long piecesKey, int player1Exited, int player2Exited, int player, int depth, boolean isMaxNode) {
+        long key = piecesKey ^ EXITED_KEYS[player1Exited] ^ EXITED_KEYS[8 + player2Exited];
+        if (player == 2) key ^= PLAYER_2_KEY;
+        if (isMaxNode) key ^= MAX_NODE_KEY;
+        key += depth * 0x9E3779B97F4A7C15L;
+        // Mix so that the depth term reaches the low bits used as the slot
+        key = (key ^ (key >>> 33)) * 0xFF51AFD7ED558CCDL;
+        key = (key ^ (key >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        key ^= key >>> 33;
+        return key == 0 ? 1 : key; // 0 marks an empty slot
+    }
+
+    /**
+     * @return The slot holding key, or -1
+     */
+    int find(long key) {
+        probes++;
+        int slot = (int) key & mask;
+        if (keys[slot] != key) return -1;
+        hits++;
+        return slot;
+    }
+
+    double value(int slot) { return values[slot]; }
+
+    void store(long key, double value) {
+        int slot = (int) key & mask;
+        keys[slot] = key;
+        values[slot] = value;
+    }
+
+    void clear() {
+        Arrays.fill(keys, 0L);
+    }
+
+    long getProbes() { return probes; }
+    long getHits() { return hits; }
+    int size() { return keys.length; }
+}
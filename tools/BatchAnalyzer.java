@@ -0,0 +1,186 @@
+package tools;
+
+import model.ComputerPlayer;
+import model.Game;
+import model.Piece;
+import model.PositionFormat;
+import model.RuleTable;
+import model.StickThrow;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Headless batch analysis of positions (no Swing/AWT classes are loaded).
+ *
+ * Reads one position per line in PositionFormat, optionally followed by a
+ * roll, from a file or stdin. Lines are searched in parallel and results are
+ * written in input order. At most a fixed window of lines is in flight, so
+ * memory stays bounded and reading pauses while the oldest line is still
+ * being searched.
+ *
+ * Output, tab separated:
+ *   with a roll:    position  roll  best move  value
+ *   without a roll: position  *     expected value  roll:move:value for each roll
+ * The move is the house number of the piece to move, "-" if there is none.
+ *
+ * Usage: java tools.BatchAnalyzer [--depth N] [--threads N] [--window N]
+ *            [--sticks uniform|four-sticks] [--skip-mass P] [--samples N] [--rules file] [input|-]
+ */
+public class BatchAnalyzer {
+
+    private int depth = 3;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private int window = 0; // 0 = 4 per thread
+    private StickThrow stickThrow = StickThrow.UNIFORM;
+    private double skipMass = 0.0;
+    private int samples = 0;
+    private RuleTable rules = RuleTable.standard();
+    private String input = "-";
+
+    public static void main(String[] args) throws Exception {
+        BatchAnalyzer analyzer = new BatchAnalyzer();
+        try {
+            analyzer.parseArgs(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: java tools.BatchAnalyzer [--depth N] [--threads N] [--window N] "
+                    + "[--sticks uniform|four-sticks] [--skip-mass P] [--samples N] [--rules file] [input|-]");
+            System.exit(2);
+        }
+        analyzer.run();
+    }
+
+    private void parseArgs(String[] args) throws IOException {
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            switch (arg) {
+                case "--depth" -> depth = Integer.parseInt(value(args, ++i, arg));
+                case "--threads" -> threads = Integer.parseInt(value(args, ++i, arg));
+                case "--window" -> window = Integer.parseInt(value(args, ++i, arg));
+                case "--sticks" -> stickThrow = StickThrow.byName(value(args, ++i, arg));
+                case "--skip-mass" -> skipMass = Double.parseDouble(value(args, ++i, arg));
+                case "--samples" -> samples = Integer.parseInt(value(args, ++i, arg));
+                case "--rules" -> rules = RuleTable.load(Path.of(value(args, ++i, arg)));
+                default -> {
+                    if (arg.startsWith("--")) throw new IllegalArgumentException("Unknown option " + arg);
+                    input = arg;
+                }
+            }
+        }
+        if (depth < 1 || threads < 1 || window < 0 || samples < 0) {
+            throw new IllegalArgumentException("Bad depth/threads/window/samples");
+        }
+        if (window == 0) window = threads * 4;
+    }
+
+    private static String value(String[] args, int i, String option) {
+        if (i >= args.length) throw new IllegalArgumentException("Missing value for " + option);
+        return args[i];
+    }
+
+    private void run() throws IOException, InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "batch-analyzer");
+            t.setDaemon(true);
+            return t;
+        });
+        ArrayDeque<Future<String>> inFlight = new ArrayDeque<>(window);
+
+        InputStream in = "-".equals(input) ? System.in : new FileInputStream(input);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 1 << 16);
+             Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String trimmed = line.trim();
+                if (trimmed.isEmpty() || trimmed.startsWith("#")) continue;
+                if (inFlight.size() == window) {
+                    writeResult(out, inFlight.poll()); // Backpressure: wait for the oldest line
+                }
+                inFlight.add(executor.submit(() -> analyse(trimmed)));
+            }
+            while (!inFlight.isEmpty()) {
+                writeResult(out, inFlight.poll());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void writeResult(Writer out, Future<String> result) throws IOException, InterruptedException {
+        try {
+            out.write(result.get());
+        } catch (ExecutionException e) {
+            out.write("error\t" + e.getCause().getMessage());
+        }
+        out.write('\n');
+    }
+
+    private String analyse(String line) {
+        String[] parts = line.split("\\s+");
+        if (parts.length < 2 || parts.length > 3) {
+            return line + "\terror\texpected: <squares> <player> [roll]";
+        }
+        String position = parts[0] + " " + parts[1];
+        try {
+            Game game = PositionFormat.decode(position, stickThrow, rules);
+            ComputerPlayer player = new ComputerPlayer(game, game.getCurrentPlayer());
+            player.setVerbose(false);
+            player.setSearchDepth(depth);
+            player.setChanceSkipMass(skipMass);
+            player.setSampledRolls(samples);
+
+            if (parts.length == 3) {
+                int roll = Integer.parseInt(parts[2]);
+                if (roll < StickThrow.MIN_ROLL || roll > StickThrow.MAX_ROLL) {
+                    throw new IllegalArgumentException("Roll out of range: " + roll);
+                }
+                Piece best = player.makeMove(roll);
+                return position + "\t" + roll + "\t" + move(best) + "\t" + value(best, player);
+            }
+
+            StringBuilder perRoll = new StringBuilder();
+            double expected = 0.0;
+            boolean allMoves = true;
+            for (int roll = StickThrow.MIN_ROLL; roll <= StickThrow.MAX_ROLL; roll++) {
+                if (stickThrow.probability(roll) == 0) continue;
+                Piece best = player.makeMove(roll);
+                if (best == null) allMoves = false;
+                else expected += stickThrow.probability(roll) * player.getLastBestValue();
+                perRoll.append('\t').append(roll).append(':').append(move(best)).append(':').append(value(best, player));
+            }
+            // A roll without a move passes the turn; its value is not searched here
+            String expectedText = allMoves ? format(expected) : "-";
+            return position + "\t*\t" + expectedText + perRoll;
+        } catch (IllegalArgumentException e) {
+            return line + "\terror\t" + e.getMessage();
+        }
+    }
+
+    private static String move(Piece best) {
+        return best == null ? "-" : PositionFormat.formatMove(best.getPosition());
+    }
+
+    private static String value(Piece best, ComputerPlayer player) {
+        return best == null ? "-" : format(player.getLastBestValue());
+    }
+
+    private static String format(double value) {
+        if (ComputerPlayer.isForcedWin(value)) return "win";
+        if (ComputerPlayer.isForcedLoss(value)) return "loss";
+        return String.format("%.4f", value);
+    }
+}
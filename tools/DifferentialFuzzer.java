@@ -0,0 +1,372 @@
+package tools;
+
+import model.ComputerPlayer;
+import model.Game;
+import model.GameState;
+import model.Piece;
+import model.PositionFormat;
+import model.RuleTable;
+import model.SharedTranspositionTable;
+import model.StickThrow;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Differential fuzzing of ComputerPlayer's search optimisations.
+ *
+ * Worker threads play random games and, at every throw, search the position
+ * twice: with the reference configuration (no transposition table, no move
+ * ordering) and with the candidate configuration. Both
+ * must pick the same move, agree on its value within epsilon and leave the
+ * game untouched. The candidate players live for a whole game, so state
+ * carried over from earlier searches (transposition tables) is exercised too.
+ *
+ * Each failing position is shrunk to a smaller one that still fails with
+ * fresh players: lower depth, fewer pieces, cleared exit flags, pieces moved
+ * back one square. It is printed as SenetEngine commands for replaying.
+ *
+ * Candidate keys: table (entries of the player's own table), hash (MB of
+ * one table shared by all threads), ordering (on/off), skip (chance skip
+ * mass). Without --candidate every optimisation is on.
+ *
+ * Usage: java tools.DifferentialFuzzer [--positions N] [--threads N] [--seed S]
+ *            [--depth N] [--epsilon E] [--candidate key=value,...] [--max-failures N]
+ *            [--sticks uniform|four-sticks] [--rules file]
+ *
+ * Exits with status 1 if any position failed.
+ */
+public class DifferentialFuzzer {
+    private static final int MAX_TURNS = 400; // Throws per random game before starting a new one
+    private static final int SHRINK_TABLE_MB = 1; // Fresh shared table per shrink attempt
+
+    /**
+     * The optimised configuration under test
+     */
+    static final class Candidate {
+        int tableSize = 1 << 16;
+        int hashMegabytes = 0;
+        boolean ordering = true;
+        double skipMass = 0.0;
+
+        Candidate(String spec) {
+            if (spec.isEmpty()) return;
+            for (String setting : spec.split(",")) {
+                String[] kv = setting.split("=", 2);
+                if (kv.length != 2) throw new IllegalArgumentException("Expected key=value in " + spec);
+                String value = kv[1].trim();
+                switch (kv[0].trim()) {
+                    case "table" -> tableSize = Integer.parseInt(value);
+                    case "hash" -> hashMegabytes = Integer.parseInt(value);
+                    case "ordering" -> ordering = parseSwitch(value);
+                    case "skip" -> skipMass = Double.parseDouble(value);
+                    default -> throw new IllegalArgumentException("Unknown candidate setting " + kv[0] + " in " + spec);
+                }
+            }
+        }
+
+        private static boolean parseSwitch(String value) {
+            return switch (value) {
+                case "on" -> true;
+                case "off" -> false;
+                default -> throw new IllegalArgumentException("Expected on or off: " + value);
+            };
+        }
+
+        ComputerPlayer create(Game game, int player, int depth, SharedTranspositionTable table) {
+            ComputerPlayer computer = new ComputerPlayer(game, player);
+            computer.setVerbose(false);
+            computer.setSearchDepth(depth);
+            computer.setTableSize(tableSize);
+            computer.setSharedTable(table);
+            computer.setMoveOrdering(ordering);
+            computer.setChanceSkipMass(skipMass);
+            return computer;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("table=%d,hash=%d,ordering=%s,skip=%s", tableSize, hashMegabytes,
+                    ordering ? "on" : "off", skipMass);
+        }
+    }
+
+    /**
+     * A position where the candidate disagreed with the reference
+     */
+    record Failure(GameState position, int roll, int depth, String reason) {}
+
+    private long positions = 1_000_000;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private long seed = 1;
+    private int depth = 2;
+    private double epsilon = 1e-9;
+    private int maxFailures = 1;
+    private Candidate candidate = new Candidate("");
+    private StickThrow stickThrow = StickThrow.UNIFORM;
+    private RuleTable rules = RuleTable.standard();
+
+    private SharedTranspositionTable sharedTable;
+    private final AtomicLong checked = new AtomicLong();
+    private final ConcurrentLinkedQueue<Failure> failures = new ConcurrentLinkedQueue<>();
+
+    public static void main(String[] args) throws Exception {
+        DifferentialFuzzer fuzzer = new DifferentialFuzzer();
+        try {
+            fuzzer.parseArgs(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: java tools.DifferentialFuzzer [--positions N] [--threads N] [--seed S] "
+                    + "[--depth N] [--epsilon E] [--candidate key=value,...] [--max-failures N] "
+                    + "[--sticks uniform|four-sticks] [--rules file]");
+            System.exit(2);
+        }
+        System.exit(fuzzer.run() ? 0 : 1);
+    }
+
+    private void parseArgs(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            if (i + 1 >= args.length) throw new IllegalArgumentException("Missing value for " + args[i]);
+            String value = args[++i];
+            switch (args[i - 1]) {
+                case "--positions" -> positions = Long.parseLong(value);
+                case "--threads" -> threads = Integer.parseInt(value);
+                case "--seed" -> seed = Long.parseLong(value);
+                case "--depth" -> depth = Integer.parseInt(value);
+                case "--epsilon" -> epsilon = Double.parseDouble(value);
+                case "--candidate" -> candidate = new Candidate(value);
+                case "--max-failures" -> maxFailures = Integer.parseInt(value);
+                case "--sticks" -> stickThrow = StickThrow.byName(value);
+                case "--rules" -> {
+                    try {
+                        rules = RuleTable.load(Path.of(value));
+                    } catch (IOException e) {
+                        throw new IllegalArgumentException("Cannot read rules " + value + ": " + e.getMessage());
+                    }
+                }
+                default -> throw new IllegalArgumentException("Unknown option " + args[i - 1]);
+            }
+        }
+        if (positions < 1 || threads < 1 || depth < 1 || maxFailures < 1) {
+            throw new IllegalArgumentException("Bad --positions/--threads/--depth/--max-failures");
+        }
+    }
+
+    /**
+     * @return True if no position failed
+     */
+    private boolean run() throws InterruptedException {
+        System.out.printf("Candidate %s vs reference, depth %d, epsilon %g, %d positions on %d threads, seed %d%n",
+                candidate, depth, epsilon, positions, threads, seed);
+        if (candidate.hashMegabytes > 0) sharedTable = new SharedTranspositionTable(candidate.hashMegabytes);
+        ExecutorService executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "fuzzer");
+            t.setDaemon(true);
+            return t;
+        });
+        long start = System.nanoTime();
+        for (int w = 0; w < threads; w++) {
+            long share = positions / threads + (w < positions % threads ? 1 : 0);
+            long workerSeed = seed * 1_000_003L + w;
+            executor.submit(() -> fuzz(workerSeed, share));
+        }
+        executor.shutdown();
+        while (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("  %d positions, %.0f/s, %d failures%n", checked.get(), checked.get() / seconds, failures.size());
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Checked %d positions in %.1f s, %d failures%n", checked.get(), seconds, failures.size());
+        if (sharedTable != null) {
+            System.out.printf("Shared table: occupancy %.1f%%, %d probes, %d hits, %d collisions%n",
+                    100 * sharedTable.getOccupancy(), sharedTable.getProbes(), sharedTable.getHits(),
+                    sharedTable.getCollisions());
+            sharedTable.close();
+        }
+        // Threads running at the time of the last failure may have added a few more
+        failures.stream().limit(maxFailures).forEach(this::report);
+        return failures.isEmpty();
+    }
+
+    private boolean stopped() {
+        return failures.size() >= maxFailures;
+    }
+
+    private void fuzz(long workerSeed, long count) {
+        Random random = new Random(workerSeed);
+        long done = 0;
+        while (done < count && !stopped()) {
+            Game game = new Game(stickThrow, rules, new Random(random.nextLong()));
+            ComputerPlayer[] reference = new ComputerPlayer[3];
+            ComputerPlayer[] optimised = new ComputerPlayer[3];
+            for (int p = 1; p <= 2; p++) {
+                reference[p] = reference(game, p, depth);
+                optimised[p] = candidate.create(game, p, depth, sharedTable);
+            }
+            for (int turn = 0; turn < MAX_TURNS && done < count && game.checkWinner() == 0 && !stopped(); turn++) {
+                int roll = game.rollSticks();
+                int player = game.getCurrentPlayer();
+                String reason = compare(game, roll, reference[player], optimised[player]);
+                if (reason != null) failures.add(new Failure(game.getState(), roll, depth, reason));
+                checked.incrementAndGet();
+                done++;
+
+                // Continue with a random legal move, so positions are not limited to what either engine would play
+                List<Piece> moves = reference[player].getMovablePieces(roll);
+                if (moves.isEmpty()) {
+                    game.nextPlayer();
+                    continue;
+                }
+                int flags = game.applyMove(moves.get(random.nextInt(moves.size())), roll);
+                if (!Game.keepsTurn(flags)) game.nextPlayer();
+            }
+        }
+    }
+
+    private static ComputerPlayer reference(Game game, int player, int depth) {
+        ComputerPlayer computer = new ComputerPlayer(game, player);
+        computer.setVerbose(false);
+        computer.setSearchDepth(depth);
+        computer.setTableSize(0);
+        computer.setMoveOrdering(false);
+        return computer;
+    }
+
+    /**
+     * Searches the position with both players
+     * @return Why they disagree, or null if they agree
+     */
+    private String compare(Game game, int roll, ComputerPlayer reference, ComputerPlayer optimised) {
+        GameState before = game.getState();
+        int referenceMove = square(reference.makeMove(roll));
+        double referenceValue = reference.getLastBestValue();
+        int optimisedMove = square(optimised.makeMove(roll));
+        double optimisedValue = optimised.getLastBestValue();
+        if (!before.equals(game.getState())) {
+            return "search changed the position to " + game.getState();
+        }
+        boolean sameValue = Double.compare(referenceValue, optimisedValue) == 0
+                || Math.abs(referenceValue - optimisedValue) <= epsilon;
+        if (referenceMove == optimisedMove && sameValue) return null;
+        return String.format("reference %s (%s), candidate %s (%s)", formatMove(referenceMove), referenceValue,
+                formatMove(optimisedMove), optimisedValue);
+    }
+
+    private static int square(Piece piece) {
+        return piece == null ? -1 : piece.getPosition();
+    }
+
+    private static String formatMove(int square) {
+        return square < 0 ? "none" : PositionFormat.formatMove(square);
+    }
+
+    /**
+     * Searches the position with fresh players
+     * @return Why they disagree, or null if they agree or the game is over
+     */
+    private String replay(GameState position, int roll, int searchDepth) {
+        Game game = Game.fromState(position, stickThrow, rules);
+        if (game.checkWinner() != 0) return null;
+        int player = game.getCurrentPlayer();
+        SharedTranspositionTable table = candidate.hashMegabytes > 0 ? new SharedTranspositionTable(SHRINK_TABLE_MB) : null;
+        try {
+            return compare(game, roll, reference(game, player, searchDepth),
+                    candidate.create(game, player, searchDepth, table));
+        } finally {
+            if (table != null) table.close();
+        }
+    }
+
+    /**
+     * Greedily applies the first simplification that still fails until none does
+     * @return The smallest failure found, or null if the position does not fail with fresh players
+     */
+    private Failure shrink(Failure failure) {
+        String reason = replay(failure.position(), failure.roll(), failure.depth());
+        if (reason == null) return null;
+        Failure smallest = new Failure(failure.position(), failure.roll(), failure.depth(), reason);
+        boolean shrunk = true;
+        while (shrunk) {
+            shrunk = false;
+            List<Failure> tries = new ArrayList<>();
+            if (smallest.depth() > 1) tries.add(new Failure(smallest.position(), smallest.roll(), smallest.depth() - 1, null));
+            for (GameState position : simplifications(smallest.position())) {
+                tries.add(new Failure(position, smallest.roll(), smallest.depth(), null));
+            }
+            for (Failure t : tries) {
+                reason = replay(t.position(), t.roll(), t.depth());
+                if (reason != null) {
+                    smallest = new Failure(t.position(), t.roll(), t.depth(), reason);
+                    shrunk = true;
+                    break;
+                }
+            }
+        }
+        return smallest;
+    }
+
+    /**
+     * Positions one step simpler: a piece removed (exited), an exit flag
+     * cleared, or a piece moved back onto an empty square (dropping its exit
+     * flag unless that square is exit-gated too). None while two pieces share
+     * a square, since they are built from the PositionFormat text
+     */
+    private List<GameState> simplifications(GameState state) {
+        if (state.hasSharedSquare()) return List.of();
+        String position = state.toString();
+        char[] squares = position.substring(0, position.indexOf(' ')).toCharArray();
+        String player = position.substring(position.indexOf(' '));
+        List<GameState> result = new ArrayList<>();
+        for (int square = 0; square < squares.length; square++) {
+            char c = squares[square];
+            if (c == '.') continue;
+            char[] removed = squares.clone();
+            removed[square] = '.';
+            result.add(GameState.fromPosition(new String(removed) + player));
+            if (Character.isUpperCase(c)) {
+                char[] cleared = squares.clone();
+                cleared[square] = Character.toLowerCase(c);
+                result.add(GameState.fromPosition(new String(cleared) + player));
+            }
+            if (square > 0 && squares[square - 1] == '.') {
+                char[] back = squares.clone();
+                back[square - 1] = rules.isExitGated(square - 1) ? c : Character.toLowerCase(c);
+                back[square] = '.';
+                result.add(GameState.fromPosition(new String(back) + player));
+            }
+        }
+        return result;
+    }
+
+    private void report(Failure failure) {
+        System.out.println();
+        System.out.printf("FAIL %s roll %d depth %d: %s%n", failure.position(), failure.roll(), failure.depth(), failure.reason());
+        Failure smallest = shrink(failure);
+        if (smallest == null) {
+            System.out.println("  does not fail with fresh players: depends on state from earlier searches");
+            return;
+        }
+        System.out.printf("  shrunk to %s roll %d depth %d: %s%n", smallest.position(), smallest.roll(), smallest.depth(),
+                smallest.reason());
+        if (smallest.position().hasSharedSquare()) {
+            System.out.println("  two pieces share a square, which SenetEngine's position command cannot set");
+            return;
+        }
+        System.out.println("  replay with tools.SenetEngine:");
+        System.out.println("    setoption name Depth value " + smallest.depth());
+        System.out.println("    setoption name SkipMass value " + candidate.skipMass);
+        System.out.println("    setoption name Samples value 0");
+        System.out.println("    setoption name Hash value " + candidate.hashMegabytes);
+        System.out.println("    position " + smallest.position());
+        System.out.println("    roll " + smallest.roll());
+        System.out.println("    go");
+    }
+}
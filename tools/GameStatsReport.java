@@ -0,0 +1,40 @@
+package tools;
+
+import model.GameStats;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Prints the GameStats snapshots in the given files (as Tournament,
+ * SelfPlayWorker or SelfPlayCoordinator write them with --stats) merged
+ * into one summary; --output also writes the merged snapshot.
+ *
+ * Usage: java tools.GameStatsReport [--output file] file...
+ */
+public class GameStatsReport {
+
+    public static void main(String[] args) throws IOException {
+        GameStats.Snapshot total = GameStats.Snapshot.EMPTY;
+        Path output = null;
+        int files = 0;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                if ("--output".equals(args[i])) {
+                    if (i + 1 >= args.length) throw new IllegalArgumentException("Missing value for --output");
+                    output = Path.of(args[++i]);
+                } else {
+                    total = total.merge(GameStats.Snapshot.load(Path.of(args[i])));
+                    files++;
+                }
+            }
+            if (files == 0) throw new IllegalArgumentException("No statistics files given");
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: java tools.GameStatsReport [--output file] file...");
+            System.exit(2);
+        }
+        System.out.println(total.format());
+        if (output != null) total.store(output);
+    }
+}
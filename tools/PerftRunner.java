@@ -0,0 +1,252 @@
+package tools;
+
+import model.GameState;
+import model.Perft;
+import model.PositionFormat;
+import model.RuleTable;
+import model.StickThrow;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Perft node counts for checking move generation. For each depth up to
+ * --depth it prints the leaf count of the search's move generation and of
+ * Game.applyMove (see Perft) and their speed. When the two disagree it
+ * walks down to the first position where their moves differ and prints
+ * it.
+ *
+ * --divide prints the count below every roll and move of the root at the
+ * last depth. --threads counts the root moves in parallel. --check compares
+ * the counts of the standard rules with the golden counts below, from the
+ * start position and from one where a failed gate sends a piece onto an
+ * occupied Rebirth, and exits with status 1 on any difference; otherwise
+ * the exit status is 1 when the generators disagree.
+ *
+ * Usage: java tools.PerftRunner [--position startpos|"<squares> <player>"] [--depth N]
+ *            [--generator search|game|both] [--divide] [--threads N] [--check]
+ *            [--sticks uniform|four-sticks] [--rules file]
+ */
+public class PerftRunner {
+    // Standard rules, uniform sticks, depth 1 upwards; both generators must match them
+    private static final String[] GOLDEN_POSITIONS = {
+            PositionFormat.START,
+            "b.............r............R.. 1", // A 1 fails Three Truths onto the r on Rebirth
+    };
+    private static final long[][] GOLDEN = {
+            {24, 572, 13_623, 325_441, 7_804_503},
+            {10, 65, 382, 2_344, 14_691, 94_824, 611_658},
+    };
+
+    private GameState position = GameState.START;
+    private int depth = 4;
+    private List<Perft.Generator> generators = List.of(Perft.Generator.SEARCH, Perft.Generator.GAME);
+    private boolean divide = false;
+    private int threads = 1;
+    private boolean check = false;
+    private StickThrow stickThrow = StickThrow.UNIFORM;
+    private RuleTable rules = RuleTable.standard();
+    private ExecutorService executor;
+
+    public static void main(String[] args) throws Exception {
+        PerftRunner runner = new PerftRunner();
+        try {
+            runner.parseArgs(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: java tools.PerftRunner [--position startpos|\"<squares> <player>\"] [--depth N] "
+                    + "[--generator search|game|both] [--divide] [--threads N] [--check] "
+                    + "[--sticks uniform|four-sticks] [--rules file]");
+            System.exit(2);
+        }
+        System.exit(runner.run() ? 0 : 1);
+    }
+
+    private void parseArgs(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--divide" -> divide = true;
+                case "--check" -> check = true;
+                default -> {
+                    if (i + 1 >= args.length) throw new IllegalArgumentException("Missing value for " + args[i]);
+                    String value = args[++i];
+                    switch (args[i - 1]) {
+                        case "--position" -> position = "startpos".equals(value) ? GameState.START : GameState.fromPosition(value);
+                        case "--depth" -> depth = Integer.parseInt(value);
+                        case "--generator" -> generators = switch (value) {
+                            case "search" -> List.of(Perft.Generator.SEARCH);
+                            case "game" -> List.of(Perft.Generator.GAME);
+                            case "both" -> List.of(Perft.Generator.SEARCH, Perft.Generator.GAME);
+                            default -> throw new IllegalArgumentException("Unknown generator " + value);
+                        };
+                        case "--threads" -> threads = Integer.parseInt(value);
+                        case "--sticks" -> stickThrow = StickThrow.byName(value);
+                        case "--rules" -> {
+                            try {
+                                rules = RuleTable.load(Path.of(value));
+                            } catch (IOException e) {
+                                throw new IllegalArgumentException("Cannot read rules " + value + ": " + e.getMessage());
+                            }
+                        }
+                        default -> throw new IllegalArgumentException("Unknown option " + args[i - 1]);
+                    }
+                }
+            }
+        }
+        if (depth < 1 || threads < 1) throw new IllegalArgumentException("Bad --depth/--threads");
+        if (check) {
+            stickThrow = StickThrow.UNIFORM;
+            rules = RuleTable.standard();
+        }
+    }
+
+    /**
+     * @return False if the generators disagree or a golden count does not match
+     */
+    private boolean run() throws InterruptedException, ExecutionException {
+        executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "perft");
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            if (!check) return run(position, null);
+            boolean ok = true;
+            for (int p = 0; p < GOLDEN_POSITIONS.length; p++) {
+                if (p > 0) System.out.println();
+                ok &= run(GameState.fromPosition(GOLDEN_POSITIONS[p]), GOLDEN[p]);
+            }
+            return ok;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * @param golden Counts to compare with by depth, null for none
+     */
+    private boolean run(GameState root, long[] golden) throws InterruptedException, ExecutionException {
+        System.out.println("Position " + describe(root));
+        boolean ok = true;
+        boolean divergence = false; // Reported once, at the first depth where the counts differ
+        int maxDepth = golden == null ? depth : Math.min(depth, golden.length);
+        for (int d = 1; d <= maxDepth; d++) {
+            StringBuilder line = new StringBuilder(String.format("depth %2d", d));
+            long[] counts = new long[generators.size()];
+            for (int g = 0; g < generators.size(); g++) {
+                long start = System.nanoTime();
+                counts[g] = count(generators.get(g), root, d);
+                double seconds = (System.nanoTime() - start) / 1e9;
+                line.append(String.format("  %s %,d (%.2f s, %,.0f nodes/s)", generators.get(g).name().toLowerCase(),
+                        counts[g], seconds, counts[g] / Math.max(seconds, 1e-9)));
+                if (golden != null) {
+                    line.append(counts[g] == golden[d - 1] ? " ok" : String.format(" expected %,d", golden[d - 1]));
+                    ok &= counts[g] == golden[d - 1];
+                }
+            }
+            System.out.println(line);
+            if (counts.length == 2 && counts[0] != counts[1] && !divergence) {
+                ok = false;
+                divergence = true;
+                findDivergence(root, d);
+            }
+        }
+        if (divide) divide(root);
+        return ok;
+    }
+
+    /**
+     * Leaf count, with the root's moves counted in parallel
+     */
+    private long count(Perft.Generator generator, GameState root, int d) throws InterruptedException, ExecutionException {
+        if (d == 0 || root.winner() != 0) return 1;
+        List<Future<Long>> parts = new ArrayList<>();
+        for (int roll = StickThrow.MIN_ROLL; roll <= StickThrow.MAX_ROLL; roll++) {
+            for (Perft.Successor successor : Perft.successors(generator, root, roll, stickThrow, rules)) {
+                parts.add(executor.submit(() -> Perft.count(generator, successor.position(), d - 1, stickThrow, rules)));
+            }
+        }
+        long leaves = 0;
+        for (Future<Long> part : parts) leaves += part.get();
+        return leaves;
+    }
+
+    private void divide(GameState root) throws InterruptedException, ExecutionException {
+        for (Perft.Generator generator : generators) {
+            System.out.println();
+            System.out.println("Divide at depth " + depth + ", " + generator.name().toLowerCase() + ":");
+            for (int roll = StickThrow.MIN_ROLL; roll <= StickThrow.MAX_ROLL; roll++) {
+                long rollLeaves = 0;
+                List<String> lines = new ArrayList<>();
+                for (Perft.Successor successor : Perft.successors(generator, root, roll, stickThrow, rules)) {
+                    long leaves = count(generator, successor.position(), depth - 1);
+                    rollLeaves += leaves;
+                    lines.add(String.format("    move %-4s %,d", formatMove(successor.square()), leaves));
+                }
+                System.out.printf("  roll %d: %,d%n", roll, rollLeaves);
+                lines.forEach(System.out::println);
+            }
+        }
+    }
+
+    /**
+     * Descends through the first child whose counts differ until the two
+     * generators produce different moves for some roll
+     */
+    private void findDivergence(GameState from, int d) throws InterruptedException, ExecutionException {
+        GameState node = from;
+        for (int remaining = d; remaining > 0; remaining--) {
+            GameState next = null;
+            for (int roll = StickThrow.MIN_ROLL; roll <= StickThrow.MAX_ROLL && next == null; roll++) {
+                Map<Integer, GameState> search = bySquare(Perft.successors(Perft.Generator.SEARCH, node, roll, stickThrow, rules));
+                Map<Integer, GameState> game = bySquare(Perft.successors(Perft.Generator.GAME, node, roll, stickThrow, rules));
+                if (!search.equals(game)) {
+                    System.out.println("First difference at " + describe(node) + " roll " + roll + ":");
+                    System.out.println("  search: " + describe(search));
+                    System.out.println("  game:   " + describe(game));
+                    return;
+                }
+                for (GameState child : search.values()) {
+                    if (count(Perft.Generator.SEARCH, child, remaining - 1) != count(Perft.Generator.GAME, child, remaining - 1)) {
+                        next = child;
+                        break;
+                    }
+                }
+            }
+            if (next == null) return; // Counts only differed through a race or a bug in this walk
+            node = next;
+        }
+    }
+
+    private static Map<Integer, GameState> bySquare(List<Perft.Successor> successors) {
+        Map<Integer, GameState> result = new TreeMap<>();
+        for (Perft.Successor successor : successors) result.put(successor.square(), successor.position());
+        return result;
+    }
+
+    private static String describe(Map<Integer, GameState> successors) {
+        StringBuilder text = new StringBuilder();
+        successors.forEach((square, after) -> text.append(text.isEmpty() ? "" : ", ")
+                .append(formatMove(square)).append(" -> ").append(describe(after)));
+        return text.toString();
+    }
+
+    /**
+     * PositionFormat shows one piece per square; the exit counts tell a stack on Rebirth apart
+     */
+    private static String describe(GameState position) {
+        return position + " (exited " + position.getPlayer1Exited() + "/" + position.getPlayer2Exited() + ")";
+    }
+
+    private static String formatMove(int square) {
+        return square < 0 ? "pass" : PositionFormat.formatMove(square);
+    }
+}
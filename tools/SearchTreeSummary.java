@@ -0,0 +1,158 @@
+package tools;
+
+import model.SearchTreeExporter;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Summarises a search tree file written by SearchTreeExporter:
+ * root move values, per-roll values below the chosen move, and the
+ * principal variation (following the most likely roll at chance nodes).
+ *
+ * Usage: java tools.SearchTreeSummary tree.bin [maxSearches]
+ */
+public class SearchTreeSummary {
+
+    private static class Node {
+        final int id;
+        final int parent;
+        final byte type;
+        final int roll;
+        final int move;
+        final double value;
+        final List<Node> children = new ArrayList<>();
+
+        Node(int id, int parent, byte type, int roll, int move, double value) {
+            this.id = id;
+            this.parent = parent;
+            this.type = type;
+            this.roll = roll;
+            this.move = move;
+            this.value = value;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: java tools.SearchTreeSummary <tree file> [max searches]");
+            System.exit(2);
+        }
+        int maxSearches = args.length > 1 ? Integer.parseInt(args[1]) : Integer.MAX_VALUE;
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(args[0]), 1 << 16))) {
+            if (in.readInt() != SearchTreeExporter.MAGIC) throw new IOException("Not a search tree file: " + args[0]);
+            int version = in.readInt();
+            if (version != SearchTreeExporter.VERSION) throw new IOException("Unsupported tree file version " + version);
+
+            // Children are written before their parent, so a tree is complete when its root arrives
+            List<Node> pending = new ArrayList<>();
+            int searches = 0;
+            while (searches < maxSearches) {
+                Node node;
+                try {
+                    node = new Node(in.readInt(), in.readInt(), in.readByte(), in.readByte(), in.readByte(), in.readDouble());
+                } catch (EOFException e) {
+                    break;
+                }
+                pending.add(node);
+                if (node.parent == -1) {
+                    summarise(++searches, link(pending, node));
+                    pending.clear();
+                }
+            }
+            if (!pending.isEmpty()) {
+                System.out.println(pending.size() + " trailing nodes without a root (search interrupted or chunks dropped)");
+            }
+        }
+    }
+
+    private static Node link(List<Node> nodes, Node root) {
+        int base = Integer.MAX_VALUE;
+        int last = Integer.MIN_VALUE;
+        for (Node n : nodes) {
+            base = Math.min(base, n.id);
+            last = Math.max(last, n.id);
+        }
+        Node[] byId = new Node[last - base + 1];
+        for (Node n : nodes) {
+            if (n.id >= base && n.id - base < byId.length) byId[n.id - base] = n;
+        }
+        // Children were appended in completion order, which is the order they were searched
+        for (Node n : nodes) {
+            int p = n.parent - base;
+            if (n.parent >= 0 && p >= 0 && p < byId.length && byId[p] != null) byId[p].children.add(n);
+        }
+        return root;
+    }
+
+    private static void summarise(int search, Node root) {
+        System.out.println("Search #" + search + ": roll " + root.roll + ", value " + format(root.value)
+                + ", " + count(root) + " nodes");
+        Node best = bestChild(root);
+        for (Node move : root.children) {
+            System.out.println("  move " + house(move.move) + ": " + format(move.value) + (move == best ? "  <- best" : ""));
+        }
+        if (best != null && best.type == SearchTreeExporter.CHANCE) {
+            System.out.println("  Per-roll values after " + house(best.move) + ":");
+            for (Node roll : best.children) {
+                System.out.println("    roll " + roll.roll + " (" + typeName(roll.type) + "): " + format(roll.value));
+            }
+        }
+        StringBuilder pv = new StringBuilder("  PV:");
+        Node node = root;
+        while (node != null) {
+            if (node.type == SearchTreeExporter.MAX || node.type == SearchTreeExporter.MIN) {
+                pv.append(" [").append(typeName(node.type)).append(" roll ").append(node.roll).append("]");
+                node = bestChild(node);
+                if (node != null) pv.append(' ').append(node.move < 0 ? "pass" : house(node.move));
+            } else if (node.type == SearchTreeExporter.CHANCE) {
+                node = node.children.isEmpty() ? null : node.children.get(0); // Most likely roll first
+            } else {
+                pv.append(" = ").append(format(node.value));
+                node = null;
+            }
+        }
+        System.out.println(pv);
+    }
+
+    private static Node bestChild(Node node) {
+        Node best = null;
+        for (Node child : node.children) {
+            if (best == null
+                    || (node.type == SearchTreeExporter.MAX && child.value > best.value)
+                    || (node.type == SearchTreeExporter.MIN && child.value < best.value)) {
+                best = child;
+            }
+        }
+        return best;
+    }
+
+    private static int count(Node node) {
+        int total = 1;
+        for (Node child : node.children) total += count(child);
+        return total;
+    }
+
+    private static String house(int square) {
+        return square < 0 ? "-" : String.valueOf(square + 1);
+    }
+
+    private static String typeName(byte type) {
+        return switch (type) {
+            case SearchTreeExporter.MAX -> "MAX";
+            case SearchTreeExporter.MIN -> "MIN";
+            case SearchTreeExporter.CHANCE -> "CHANCE";
+            default -> "LEAF";
+        };
+    }
+
+    private static String format(double value) {
+        return String.format("%.2f", value);
+    }
+}
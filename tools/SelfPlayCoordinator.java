@@ -0,0 +1,437 @@
+package tools;
+
+import model.GameStats;
+import model.StickThrow;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Spreads paired self-play games over worker JVMs (SelfPlayWorker), so a
+ * run is not limited to one heap and one process's threads. The
+ * coordinator listens on localhost --port and hands batches of game seeds
+ * and the two variants (specs as in Tournament) to every worker that
+ * connects. --workers N starts N workers with the same java command, JVM
+ * options and class path; more can join at any time with
+ * "java tools.SelfPlayWorker --port P".
+ *
+ * A batch is --batch game pairs; both games of a pair use the same seed
+ * with the colours swapped. A batch counts once all of its games are in.
+ * When a worker disconnects (or is killed), or keeps a batch longer than
+ * --timeout seconds, it is dropped and its unfinished batches are handed
+ * to the other workers. Every few seconds the coordinator prints games/s
+ * overall and per worker and the first variant's score and Elo against
+ * the second; --output receives one CSV line per game.
+ *
+ * With --stats, every started worker records GameStats to
+ * <prefix>-<worker>.properties, and the coordinator prints them merged
+ * once the workers have exited. Games of a batch that was re-queued are
+ * counted by both workers that played them.
+ *
+ * Protocol, one line per message:
+ *   worker:      hello <name> <batches at once>
+ *   coordinator: batch <id> <first seed> <pairs> <max turns> <sticks> <variant A> <variant B>
+ *   worker:      game <id> <seed> <0 if A is player 1, else 1> <winner 1, 2 or 0 if stopped> <turns>
+ *   worker:      done <id>  |  failed <id> <reason>
+ *   coordinator: quit
+ *
+ * Usage: java tools.SelfPlayCoordinator --variant name:depth=3 [--variant name:depth=1]
+ *            [--pairs N] [--batch N] [--port N] [--workers N] [--threads N] [--seed S]
+ *            [--timeout SEC] [--output file] [--sticks uniform|four-sticks] [--max-turns N]
+ *            [--stats prefix]
+ */
+public class SelfPlayCoordinator {
+    public static final int DEFAULT_PORT = 7373;
+    private static final long REPORT_INTERVAL = 5000; // ms
+
+    private final List<String> variants = new ArrayList<>();
+    private int pairs = 1000;
+    private int batchPairs = 25;
+    private int port = DEFAULT_PORT;
+    private int workers = 0;
+    private int workerThreads = 0; // 0 = cores shared out between the workers
+    private long seed = System.nanoTime();
+    private int timeoutSeconds = 300;
+    private Path output = null;
+    private StickThrow stickThrow = StickThrow.UNIFORM;
+    private int maxTurns = 2000;
+    private String statsPrefix = null;
+
+    // Guarded by this
+    private final ArrayDeque<Batch> pending = new ArrayDeque<>();
+    private final List<Connection> connections = new ArrayList<>();
+    private final Map<String, Long> gamesByWorker = new HashMap<>();
+    private final Tournament.Match match = new Tournament.Match();
+    private int batches;
+    private int batchesDone = 0;
+    private long games = 0;
+    private long turns = 0;
+    private int reissued = 0;
+    private String failure = null;
+    private PrintWriter csv;
+
+    /**
+     * Game pairs seed to seed + pairs - 1
+     */
+    private record Batch(int id, long seed, int pairs) {}
+
+    /**
+     * A connected worker and the batches it has been sent
+     */
+    private static final class Connection {
+        final Socket socket;
+        final PrintWriter out;
+        String name;
+        int slots = 0;
+        final Map<Integer, Batch> outstanding = new HashMap<>();
+        final Map<Integer, Long> sentAt = new HashMap<>(); // System.nanoTime()
+        final Map<Integer, int[]> results = new HashMap<>(); // Per game of the batch: winner (-1 until it arrives) and turns
+
+        Connection(Socket socket, int number) throws IOException {
+            this.socket = socket;
+            this.out = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+            this.name = "connection-" + number;
+        }
+
+        void send(String line) {
+            out.println(line);
+            out.flush();
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        SelfPlayCoordinator coordinator = new SelfPlayCoordinator();
+        try {
+            coordinator.parseArgs(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: java tools.SelfPlayCoordinator --variant name:depth=3 [--variant name:depth=1] "
+                    + "[--pairs N] [--batch N] [--port N] [--workers N] [--threads N] [--seed S] "
+                    + "[--timeout SEC] [--output file] [--sticks uniform|four-sticks] [--max-turns N] [--stats prefix]");
+            System.exit(2);
+        }
+        System.exit(coordinator.run() ? 0 : 1);
+    }
+
+    private void parseArgs(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (i + 1 >= args.length) throw new IllegalArgumentException("Missing value for " + arg);
+            String value = args[++i];
+            switch (arg) {
+                case "--variant" -> variants.add(value);
+                case "--pairs" -> pairs = Integer.parseInt(value);
+                case "--batch" -> batchPairs = Integer.parseInt(value);
+                case "--port" -> port = Integer.parseInt(value);
+                case "--workers" -> workers = Integer.parseInt(value);
+                case "--threads" -> workerThreads = Integer.parseInt(value);
+                case "--seed" -> seed = Long.parseLong(value);
+                case "--timeout" -> timeoutSeconds = Integer.parseInt(value);
+                case "--output" -> output = Path.of(value);
+                case "--sticks" -> stickThrow = StickThrow.byName(value);
+                case "--max-turns" -> maxTurns = Integer.parseInt(value);
+                case "--stats" -> statsPrefix = value;
+                default -> throw new IllegalArgumentException("Unknown option " + arg);
+            }
+        }
+        if (variants.isEmpty() || variants.size() > 2) throw new IllegalArgumentException("Need one or two --variant");
+        if (variants.size() == 1) variants.add(variants.get(0)); // Self-play
+        for (String spec : variants) {
+            if (spec.matches(".*\\s.*")) throw new IllegalArgumentException("Variant must not contain spaces: " + spec);
+            Tournament.Variant variant = new Tournament.Variant(spec); // Reject bad specs here rather than on every worker
+            if (variant.table != null) variant.table.close();
+        }
+        if (pairs < 1 || batchPairs < 1 || workers < 0 || workerThreads < 0 || timeoutSeconds < 1) {
+            throw new IllegalArgumentException("Bad --pairs/--batch/--workers/--threads/--timeout");
+        }
+    }
+
+    /**
+     * @return False if a batch failed or every started worker exited before the end
+     */
+    private boolean run() throws IOException, InterruptedException {
+        for (int id = 0, first = 0; first < pairs; id++, first += batchPairs) {
+            pending.add(new Batch(id, seed + first, Math.min(batchPairs, pairs - first)));
+        }
+        batches = pending.size();
+        if (output != null) {
+            csv = new PrintWriter(Files.newBufferedWriter(output));
+            csv.println("seed,a_player,winner,turns,worker");
+        }
+
+        ServerSocket server = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        Thread acceptor = new Thread(() -> accept(server), "self-play-accept");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        System.out.printf("Seed %d, %d pairs in %d batches, %s vs %s, listening on port %d%n",
+                seed, pairs, batches, variants.get(0), variants.get(1), server.getLocalPort());
+        List<Process> processes = spawnWorkers(server.getLocalPort());
+
+        long start = System.nanoTime();
+        long nextReport = System.currentTimeMillis() + REPORT_INTERVAL;
+        try {
+            synchronized (this) {
+                while (batchesDone < batches && failure == null) {
+                    wait(Math.max(1, Math.min(1000, nextReport - System.currentTimeMillis())));
+                    checkTimeouts();
+                    if (!processes.isEmpty() && connections.isEmpty()
+                            && processes.stream().noneMatch(Process::isAlive)) {
+                        failure = "All started workers exited";
+                    }
+                    if (System.currentTimeMillis() >= nextReport) {
+                        report(start);
+                        nextReport += REPORT_INTERVAL;
+                    }
+                }
+                for (Connection c : connections) c.send("quit");
+                report(start);
+            }
+        } finally {
+            server.close();
+            if (csv != null) csv.close();
+            for (Process process : processes) {
+                if (!process.waitFor(10, TimeUnit.SECONDS)) process.destroy();
+            }
+        }
+        if (statsPrefix != null && workers > 0) printStats();
+        if (failure != null) {
+            System.err.println(failure);
+            return false;
+        }
+        return true;
+    }
+
+    private List<Process> spawnWorkers(int localPort) throws IOException {
+        List<Process> processes = new ArrayList<>();
+        if (workers == 0) {
+            System.out.println("Waiting for workers: java tools.SelfPlayWorker --port " + localPort);
+            return processes;
+        }
+        int threads = workerThreads > 0 ? workerThreads : Math.max(1, Runtime.getRuntime().availableProcessors() / workers);
+        for (int i = 1; i <= workers; i++) {
+            List<String> command = new ArrayList<>();
+            command.add(ProcessHandle.current().info().command().orElse("java"));
+            command.addAll(ManagementFactory.getRuntimeMXBean().getInputArguments());
+            command.addAll(List.of("-cp", System.getProperty("java.class.path"), SelfPlayWorker.class.getName(),
+                    "--port", Integer.toString(localPort), "--threads", Integer.toString(threads), "--name", "local-" + i));
+            if (statsPrefix != null) command.addAll(List.of("--stats", statsFile(i).toString()));
+            processes.add(new ProcessBuilder(command)
+                    .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                    .redirectError(ProcessBuilder.Redirect.INHERIT)
+                    .start());
+        }
+        System.out.printf("Started %d workers with %d threads each%n", workers, threads);
+        return processes;
+    }
+
+    private Path statsFile(int worker) {
+        return Path.of(statsPrefix + "-local-" + worker + ".properties");
+    }
+
+    /**
+     * Merges the statistics the started workers wrote on exit
+     */
+    private void printStats() {
+        GameStats.Snapshot total = GameStats.Snapshot.EMPTY;
+        for (int i = 1; i <= workers; i++) {
+            Path file = statsFile(i);
+            try {
+                total = total.merge(GameStats.Snapshot.load(file));
+            } catch (IOException | IllegalArgumentException e) {
+                System.err.println("Skipping statistics " + file + ": " + e.getMessage());
+            }
+        }
+        System.out.println();
+        System.out.println(total.format());
+    }
+
+    private void accept(ServerSocket server) {
+        int number = 0;
+        while (!server.isClosed()) {
+            try {
+                Socket socket = server.accept();
+                Connection c = new Connection(socket, ++number);
+                synchronized (this) {
+                    connections.add(c);
+                }
+                Thread reader = new Thread(() -> serve(c), "self-play-" + c.name);
+                reader.setDaemon(true);
+                reader.start();
+            } catch (IOException e) {
+                if (!server.isClosed()) System.err.println("Accept failed: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Reads one worker's messages until it disconnects
+     */
+    private void serve(Connection c) {
+        String reason = "disconnected";
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(c.socket.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = in.readLine()) != null) handle(c, line);
+        } catch (IOException e) {
+            reason = e.getMessage();
+        } catch (RuntimeException e) { // Garbled message
+            reason = e.toString();
+        } finally {
+            drop(c, reason);
+        }
+    }
+
+    private synchronized void handle(Connection c, String line) {
+        String[] tokens = line.trim().split("\\s+");
+        switch (tokens[0]) {
+            case "hello" -> {
+                c.name = tokens[1];
+                c.slots = Integer.parseInt(tokens[2]);
+                System.out.printf("Worker %s joined, %d batches at once%n", c.name, c.slots);
+                dispatch(c);
+            }
+            case "game" -> {
+                int id = Integer.parseInt(tokens[1]);
+                Batch batch = c.outstanding.get(id);
+                if (batch == null) return;
+                int game = (int) (Long.parseLong(tokens[2]) - batch.seed()) * 2 + Integer.parseInt(tokens[3]);
+                int[] results = c.results.get(id);
+                results[2 * game] = Integer.parseInt(tokens[4]);
+                results[2 * game + 1] = Integer.parseInt(tokens[5]);
+            }
+            case "done" -> {
+                complete(c, Integer.parseInt(tokens[1]));
+                dispatch(c);
+            }
+            case "failed" -> {
+                failure = "Batch " + tokens[1] + " failed on " + c.name + ": " + line.substring(line.indexOf(tokens[1]) + tokens[1].length()).trim();
+                notifyAll();
+            }
+            default -> throw new IllegalArgumentException("Unexpected message from " + c.name + ": " + line);
+        }
+    }
+
+    /**
+     * Adds a finished batch to the match, a pair at a time. Games of a
+     * batch that never finishes are left out, as it is played again.
+     * A batch reported done with games missing stays outstanding, so
+     * dropping the worker hands it to another one whole
+     */
+    private void complete(Connection c, int id) {
+        Batch batch = c.outstanding.get(id);
+        if (batch == null) return;
+        int[] results = c.results.get(id);
+        for (int game = 0; game < 2 * batch.pairs(); game++) {
+            if (results[2 * game] < 0) throw new IllegalArgumentException(c.name + " finished batch " + id + " with games missing");
+        }
+        c.outstanding.remove(id);
+        c.results.remove(id);
+        c.sentAt.remove(id);
+        for (int p = 0; p < batch.pairs(); p++) {
+            int points = 0; // Half-points of variant A in the pair
+            for (int swapped = 0; swapped < 2; swapped++) {
+                int game = 2 * p + swapped;
+                int winner = results[2 * game];
+                int aPlayer = swapped == 0 ? 1 : 2;
+                if (winner == aPlayer) { match.wins++; points += 2; }
+                else if (winner != 0) match.losses++;
+                else { match.draws++; points += 1; }
+                turns += results[2 * game + 1];
+                if (csv != null) csv.printf("%d,%d,%d,%d,%s%n", batch.seed() + p, aPlayer, winner, results[2 * game + 1], c.name);
+            }
+            match.add(points);
+        }
+        games += 2L * batch.pairs();
+        gamesByWorker.merge(c.name, 2L * batch.pairs(), Long::sum);
+        batchesDone++;
+        notifyAll();
+    }
+
+    private void dispatch(Connection c) {
+        while (c.outstanding.size() < c.slots && !pending.isEmpty()) {
+            Batch batch = pending.poll();
+            c.outstanding.put(batch.id(), batch);
+            c.sentAt.put(batch.id(), System.nanoTime());
+            int[] results = new int[4 * batch.pairs()];
+            Arrays.fill(results, -1);
+            c.results.put(batch.id(), results);
+            c.send("batch " + batch.id() + " " + batch.seed() + " " + batch.pairs() + " " + maxTurns + " "
+                    + stickThrow.getName() + " " + variants.get(0) + " " + variants.get(1));
+        }
+    }
+
+    /**
+     * Forgets a worker and hands its unfinished batches to the others
+     */
+    private synchronized void drop(Connection c, String reason) {
+        if (!connections.remove(c)) return;
+        try {
+            c.socket.close();
+        } catch (IOException e) {
+            // Already gone
+        }
+        if (batchesDone == batches) return; // Normal end after quit
+        List<Batch> unfinished = new ArrayList<>(c.outstanding.values());
+        unfinished.sort((a, b) -> Integer.compare(b.id(), a.id()));
+        for (Batch batch : unfinished) pending.addFirst(batch);
+        reissued += unfinished.size();
+        System.out.printf("Worker %s left (%s), %d batches re-queued%n", c.name, reason, unfinished.size());
+        for (Connection other : connections) dispatch(other);
+        notifyAll();
+    }
+
+    /**
+     * Disconnects workers holding a batch past the timeout; their reader threads then drop them
+     */
+    private void checkTimeouts() {
+        long now = System.nanoTime();
+        for (Connection c : connections) {
+            for (Map.Entry<Integer, Long> sent : c.sentAt.entrySet()) {
+                if (now - sent.getValue() > TimeUnit.SECONDS.toNanos(timeoutSeconds)) {
+                    System.out.printf("Worker %s timed out on batch %d%n", c.name, sent.getKey());
+                    try {
+                        c.socket.close();
+                    } catch (IOException e) {
+                        // Reader thread sees the close either way
+                    }
+                    break;
+                }
+            }
+        }
+    }
+
+    private void report(long start) {
+        double seconds = (System.nanoTime() - start) / 1e9;
+        StringBuilder perWorker = new StringBuilder();
+        for (Map.Entry<String, Long> worker : gamesByWorker.entrySet()) {
+            perWorker.append(String.format(" %s %.1f/s", worker.getKey(), worker.getValue() / seconds));
+        }
+        System.out.printf("batches %d/%d  games %d  %.1f games/s  %.0f turns/game  workers %d  re-queued %d%n",
+                batchesDone, batches, games, games / seconds, games == 0 ? 0.0 : (double) turns / games,
+                connections.size(), reissued);
+        if (match.pairs > 0) {
+            double score = match.score();
+            double margin = 1.96 * Math.sqrt(match.pairVariance() / match.pairs);
+            System.out.printf("  W/L/D %d/%d/%d  score %.3f  elo %s [%s, %s]  per worker:%s%n",
+                    match.wins, match.losses, match.draws, score, Tournament.formatElo(Tournament.eloFromScore(score)),
+                    Tournament.formatElo(Tournament.eloFromScore(score - margin)),
+                    Tournament.formatElo(Tournament.eloFromScore(score + margin)), perWorker);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package tools;
+
+import model.ComputerStrategy;
+import model.Game;
+import model.GameStats;
+import model.RuleTable;
+import model.SelfPlay;
+import model.StickThrow;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Worker process for SelfPlayCoordinator. Connects to the coordinator on
+ * localhost, announces how many batches it plays at once, and plays every
+ * batch it is sent on its own threads, answering with one line per game
+ * and one when the batch is done (see SelfPlayCoordinator for the
+ * protocol). Exits when the coordinator sends quit or the connection
+ * drops.
+ *
+ * --stats records GameStats over the games played here and writes them to
+ * the file every few seconds and on exit; GameStatsReport merges the
+ * files of several workers.
+ *
+ * Usage: java tools.SelfPlayWorker [--port N] [--threads N] [--name S] [--stats file]
+ */
+public class SelfPlayWorker {
+    private static final long STATS_FLUSH_MILLIS = 5000;
+
+    private int port = SelfPlayCoordinator.DEFAULT_PORT;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private String name = "worker-" + ProcessHandle.current().pid();
+    private Path statsFile = null;
+    private GameStats stats = null;
+
+    private final Map<String, Tournament.Variant> variants = new HashMap<>(); // By spec, so tables are loaded once
+    private PrintWriter out;
+
+    public static void main(String[] args) throws Exception {
+        SelfPlayWorker worker = new SelfPlayWorker();
+        try {
+            worker.parseArgs(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: java tools.SelfPlayWorker [--port N] [--threads N] [--name S] [--stats file]");
+            System.exit(2);
+        }
+        worker.run();
+    }
+
+    private void parseArgs(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (i + 1 >= args.length) throw new IllegalArgumentException("Missing value for " + arg);
+            String value = args[++i];
+            switch (arg) {
+                case "--port" -> port = Integer.parseInt(value);
+                case "--threads" -> threads = Integer.parseInt(value);
+                case "--name" -> name = value;
+                case "--stats" -> statsFile = Path.of(value);
+                default -> throw new IllegalArgumentException("Unknown option " + arg);
+            }
+        }
+        if (threads < 1 || name.isBlank() || name.contains(" ")) throw new IllegalArgumentException("Bad --threads/--name");
+    }
+
+    private void run() throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "self-play-worker");
+            t.setDaemon(true);
+            return t;
+        });
+        if (statsFile != null) {
+            stats = new GameStats();
+            stats.flushEvery(statsFile, STATS_FLUSH_MILLIS);
+        }
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8))) {
+            out = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+            send("hello " + name + " " + threads);
+            String line;
+            while ((line = in.readLine()) != null) {
+                String[] tokens = line.trim().split("\\s+");
+                if ("quit".equals(tokens[0])) break;
+                if (!"batch".equals(tokens[0]) || tokens.length != 8) {
+                    System.err.println(name + ": unexpected line from coordinator: " + line);
+                    continue;
+                }
+                // batch <id> <first seed> <pairs> <max turns> <sticks> <variant A> <variant B>
+                int id = Integer.parseInt(tokens[1]);
+                try {
+                    long seed = Long.parseLong(tokens[2]);
+                    int pairs = Integer.parseInt(tokens[3]);
+                    int maxTurns = Integer.parseInt(tokens[4]);
+                    StickThrow stickThrow = StickThrow.byName(tokens[5]);
+                    Tournament.Variant a = variant(tokens[6]);
+                    Tournament.Variant b = variant(tokens[7]);
+                    executor.submit(() -> playBatch(id, seed, pairs, maxTurns, stickThrow, a, b));
+                } catch (IllegalArgumentException e) { // Such as a weights file missing on this machine
+                    send("failed " + id + " " + e.getMessage());
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+            if (stats != null) stats.close();
+        }
+    }
+
+    private synchronized Tournament.Variant variant(String spec) {
+        return variants.computeIfAbsent(spec, Tournament.Variant::new);
+    }
+
+    /**
+     * Plays pairs games pairs from seed upwards, a as player 1 and then as player 2 with each seed
+     */
+    private void playBatch(int id, long seed, int pairs, int maxTurns, StickThrow stickThrow,
+                           Tournament.Variant a, Tournament.Variant b) {
+        try {
+            for (int p = 0; p < pairs; p++) {
+                for (int swapped = 0; swapped < 2; swapped++) {
+                    int[] turns = new int[1];
+                    int winner = playGame(swapped == 0 ? a : b, swapped == 0 ? b : a, seed + p, stickThrow, maxTurns, turns);
+                    send("game " + id + " " + (seed + p) + " " + swapped + " " + winner + " " + turns[0]);
+                }
+            }
+            send("done " + id);
+        } catch (RuntimeException e) {
+            send("failed " + id + " " + e);
+        }
+    }
+
+    private int playGame(Tournament.Variant player1, Tournament.Variant player2, long gameSeed,
+                         StickThrow stickThrow, int maxTurns, int[] turns) {
+        Game game = new Game(stickThrow, RuleTable.standard(), new Random(gameSeed));
+        game.setStats(stats);
+        ComputerStrategy first = player1.create(game, 1, gameSeed);
+        ComputerStrategy second = player2.create(game, 2, gameSeed);
+        try {
+            return SelfPlay.play(game, first, second, maxTurns, state -> turns[0]++);
+        } finally {
+            first.shutdown();
+            second.shutdown();
+        }
+    }
+
+    private synchronized void send(String line) {
+        out.println(line);
+        out.flush();
+    }
+}
@@ -0,0 +1,357 @@
+package tools;
+
+import model.ComputerPlayer;
+import model.Game;
+import model.Piece;
+import model.PositionFormat;
+import model.RuleTable;
+import model.SearchTreeExporter;
+import model.SharedTranspositionTable;
+import model.StickThrow;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * UCI-style text protocol over stdin/stdout so tournament managers and
+ * scripts can drive ComputerPlayer without the GUI. Only model classes are
+ * used; Swing/AWT is never loaded.
+ *
+ * Commands:
+ *   senet                              identify; answers id/option lines and "senetok"
+ *   isready                            answers "readyok"
+ *   setoption name <Depth|Sticks|SkipMass|Samples|Rules|Hash|TreeFile> value <v>
+ *   newgame                            back to the start position
+ *   position startpos | position <squares> <player>   (PositionFormat)
+ *   roll <1-5>                         throw to search for the player to move
+ *   go [depth N] [movetime ms] [nodes N] [infinite]
+ *   stop                               finish the search now
+ *   d                                  print the position
+ *   quit
+ *
+ * A search deepens one ply at a time and prints after each completed depth
+ *   info depth D nodes N nps X time MS score S [ci H] pv MOVE
+ * where ci is the 95% half-width of the score when Samples is set.
+ * then "bestmove MOVE" (house number of the piece to move) or "bestmove none".
+ * With "infinite" bestmove is only printed after "stop".
+ *
+ * Hash is the size in MB of the transposition table kept across searches
+ * until newgame or a rules change (0 = a fresh table per search).
+ *
+ * TreeFile names a file that each go rewrites with every node searched, one
+ * tree per completed depth, for tools.SearchTreeSummary; <none> turns it off.
+ */
+public class SenetEngine {
+    private static final String NAME = "Senet Expectiminimax";
+    private static final int MAX_PLY = 64;
+
+    private final ExecutorService searchThread = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "engine-search");
+        t.setDaemon(true);
+        return t;
+    });
+    private Future<?> search;
+    private volatile ComputerPlayer searcher;
+    private volatile boolean infiniteStopped;
+
+    private String position = PositionFormat.START;
+    private int roll = 0;
+    private int defaultDepth = 3;
+    private StickThrow stickThrow = StickThrow.UNIFORM;
+    private double skipMass = 0.0;
+    private int samples = 0;
+    private RuleTable rules = RuleTable.standard();
+    private SharedTranspositionTable table = new SharedTranspositionTable(16);
+    private Path treeFile = null;
+
+    public static void main(String[] args) throws IOException {
+        new SenetEngine().loop();
+    }
+
+    private void loop() throws IOException {
+        BufferedReader in = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+        String line;
+        while ((line = in.readLine()) != null) {
+            String[] tokens = line.trim().split("\\s+");
+            if (tokens[0].isEmpty()) continue;
+            try {
+                switch (tokens[0]) {
+                    case "senet", "uci" -> identify();
+                    case "isready" -> send("readyok");
+                    case "setoption" -> setOption(tokens);
+                    case "newgame", "ucinewgame" -> {
+                        requireIdle();
+                        position = PositionFormat.START;
+                        roll = 0;
+                        clearTable();
+                    }
+                    case "position" -> setPosition(tokens);
+                    case "roll" -> { requireIdle(); roll = parseRoll(tokens); }
+                    case "go" -> go(tokens);
+                    case "stop" -> stop();
+                    case "d" -> send("info string position " + position + " roll " + roll);
+                    case "quit" -> {
+                        stop();
+                        shutdown();
+                        return;
+                    }
+                    default -> send("info string unknown command " + tokens[0]);
+                }
+            } catch (IllegalArgumentException e) {
+                send("info string error " + e.getMessage());
+            }
+        }
+        stop();
+        shutdown();
+    }
+
+    private void shutdown() {
+        searchThread.shutdownNow();
+        try {
+            // The table must outlive the search using it
+            searchThread.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        if (table != null) table.close();
+    }
+
+    private void clearTable() {
+        if (table != null) table.clear();
+    }
+
+    private void identify() {
+        send("id name " + NAME);
+        send("id author senet-game");
+        send("option name Depth type spin default 3 min 1 max " + MAX_PLY);
+        send("option name Sticks type combo default uniform var uniform var four-sticks");
+        send("option name SkipMass type string default 0");
+        send("option name Samples type spin default 0 min 0 max 100");
+        send("option name Rules type string default <standard>");
+        send("option name Hash type spin default 16 min 0 max 4096");
+        send("option name TreeFile type string default <none>");
+        send("senetok");
+    }
+
+    private void setOption(String[] tokens) {
+        // setoption name <name> value <value>
+        if (tokens.length < 5 || !"name".equals(tokens[1]) || !"value".equals(tokens[3])) {
+            throw new IllegalArgumentException("expected: setoption name <name> value <value>");
+        }
+        requireIdle();
+        String value = String.join(" ", List.of(tokens).subList(4, tokens.length));
+        switch (tokens[2].toLowerCase()) {
+            case "depth" -> {
+                int depth = Integer.parseInt(value);
+                if (depth < 1 || depth > MAX_PLY) throw new IllegalArgumentException("Depth out of range: " + depth);
+                defaultDepth = depth;
+            }
+            case "sticks" -> {
+                stickThrow = StickThrow.byName(value);
+                clearTable(); // Stored values depend on the roll probabilities
+            }
+            case "skipmass" -> skipMass = Double.parseDouble(value);
+            case "samples" -> {
+                int n = Integer.parseInt(value);
+                if (n < 0) throw new IllegalArgumentException("Samples out of range: " + n);
+                samples = n;
+            }
+            case "rules" -> {
+                try {
+                    rules = RuleTable.load(Path.of(value));
+                    clearTable();
+                } catch (IOException e) {
+                    throw new IllegalArgumentException("Cannot read rules " + value + ": " + e.getMessage());
+                }
+            }
+            case "hash" -> {
+                int megabytes = Integer.parseInt(value);
+                if (megabytes < 0 || megabytes > 4096) throw new IllegalArgumentException("Hash out of range: " + megabytes);
+                if (table != null) table.close();
+                table = megabytes == 0 ? null : new SharedTranspositionTable(megabytes);
+            }
+            case "treefile" -> treeFile = "<none>".equals(value) ? null : Path.of(value);
+            default -> throw new IllegalArgumentException("Unknown option " + tokens[2]);
+        }
+    }
+
+    private void setPosition(String[] tokens) {
+        requireIdle();
+        String text;
+        if (tokens.length == 2 && "startpos".equals(tokens[1])) {
+            text = PositionFormat.START;
+        } else if (tokens.length == 3) {
+            text = tokens[1] + " " + tokens[2];
+        } else {
+            throw new IllegalArgumentException("expected: position startpos | position <squares> <player>");
+        }
+        PositionFormat.decode(text, stickThrow, rules); // Validate now rather than at go
+        position = text;
+        roll = 0;
+    }
+
+    private static int parseRoll(String[] tokens) {
+        if (tokens.length != 2) throw new IllegalArgumentException("expected: roll <1-5>");
+        int value = Integer.parseInt(tokens[1]);
+        if (value < StickThrow.MIN_ROLL || value > StickThrow.MAX_ROLL) {
+            throw new IllegalArgumentException("Roll out of range: " + value);
+        }
+        return value;
+    }
+
+    private void go(String[] tokens) {
+        requireIdle();
+        if (roll == 0) throw new IllegalArgumentException("no roll set");
+
+        int depth = 0;
+        long moveTime = 0;
+        long nodes = 0;
+        boolean infinite = false;
+        for (int i = 1; i < tokens.length; i++) {
+            switch (tokens[i]) {
+                case "depth" -> depth = Integer.parseInt(tokens[++i]);
+                case "movetime" -> moveTime = Long.parseLong(tokens[++i]);
+                case "nodes" -> nodes = Long.parseLong(tokens[++i]);
+                case "infinite" -> infinite = true;
+                default -> throw new IllegalArgumentException("Unknown go parameter " + tokens[i]);
+            }
+        }
+        boolean limited = moveTime > 0 || nodes > 0 || infinite;
+        int maxDepth = depth > 0 ? Math.min(depth, MAX_PLY) : (limited ? MAX_PLY : defaultDepth);
+
+        Game game = PositionFormat.decode(position, stickThrow, rules);
+        ComputerPlayer player = new ComputerPlayer(game, game.getCurrentPlayer());
+        player.setVerbose(false);
+        player.setChanceSkipMass(skipMass);
+        player.setSampledRolls(samples);
+        player.setSharedTable(table);
+        player.setNodeLimit(nodes);
+        SearchTreeExporter exporter = openTreeFile();
+        player.setTreeExporter(exporter);
+        long start = System.nanoTime();
+        player.setDeadline(moveTime > 0 ? start + moveTime * 1_000_000L : 0);
+
+        int searchRoll = roll;
+        boolean waitForStop = infinite;
+        searcher = player;
+        infiniteStopped = false;
+        search = searchThread.submit(() -> {
+            try {
+                iterate(player, searchRoll, maxDepth, start, waitForStop);
+            } finally {
+                if (exporter != null) closeTreeFile(exporter);
+            }
+        });
+    }
+
+    private SearchTreeExporter openTreeFile() {
+        if (treeFile == null) return null;
+        try {
+            return new SearchTreeExporter(treeFile);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Cannot write tree file " + treeFile + ": " + e.getMessage());
+        }
+    }
+
+    private void closeTreeFile(SearchTreeExporter exporter) {
+        try {
+            exporter.close();
+            send("info string tree " + exporter.getNodesWritten() + " nodes written, "
+                    + exporter.getNodesDropped() + " dropped");
+        } catch (IOException e) {
+            send("info string tree file failed " + e.getMessage());
+        }
+    }
+
+    private void iterate(ComputerPlayer player, int searchRoll, int maxDepth, long start, boolean waitForStop) {
+        List<Piece> legal = player.getMovablePieces(searchRoll);
+        Piece best = null;
+        if (!legal.isEmpty()) {
+            best = legal.get(0); // Fallback if not even depth 1 completes
+            for (int depth = 1; depth <= maxDepth; depth++) {
+                player.setSearchDepth(depth);
+                Piece found = player.makeMove(searchRoll);
+                if (player.wasLastSearchAborted()) break;
+                best = found;
+                long elapsed = System.nanoTime() - start;
+                long nodes = player.getNodesSearched();
+                send("info depth " + depth + " nodes " + nodes
+                        + " nps " + (elapsed > 0 ? nodes * 1_000_000_000L / elapsed : 0)
+                        + " time " + elapsed / 1_000_000
+                        + " score " + formatScore(player.getLastBestValue())
+                        + confidence(player, best)
+                        + " pv " + PositionFormat.formatMove(best.getPosition()));
+                double value = player.getLastBestValue();
+                if (ComputerPlayer.isForcedWin(value) || ComputerPlayer.isForcedLoss(value)) break; // Forced result
+            }
+        }
+        if (waitForStop) {
+            // UCI semantics: an infinite search reports only when told to stop
+            synchronized (this) {
+                while (!infiniteStopped) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            }
+        }
+        send("bestmove " + (best == null ? "none" : PositionFormat.formatMove(best.getPosition())));
+    }
+
+    private String confidence(ComputerPlayer player, Piece best) {
+        if (player.getSampledRolls() == 0) return "";
+        for (ComputerPlayer.MoveEstimate estimate : player.getLastMoveEstimates()) {
+            if (estimate.square == best.getPosition()) return " ci " + String.format("%.4f", estimate.halfWidth);
+        }
+        return "";
+    }
+
+    private void stop() {
+        ComputerPlayer player = searcher;
+        if (player != null) player.requestStop();
+        synchronized (this) {
+            infiniteStopped = true;
+            notifyAll();
+        }
+        waitForSearch();
+    }
+
+    private void requireIdle() {
+        if (search != null && !search.isDone()) throw new IllegalArgumentException("search running, send stop first");
+    }
+
+    private void waitForSearch() {
+        if (search == null) return;
+        try {
+            search.get();
+        } catch (Exception e) {
+            send("info string search failed " + e);
+        }
+        search = null;
+        searcher = null;
+    }
+
+    private static String formatScore(double value) {
+        if (ComputerPlayer.isForcedWin(value)) return "win";
+        if (ComputerPlayer.isForcedLoss(value)) return "loss";
+        return String.format("%.4f", value);
+    }
+
+    private static void send(String message) {
+        synchronized (System.out) {
+            System.out.println(message);
+            System.out.flush();
+        }
+    }
+}
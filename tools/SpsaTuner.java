@@ -0,0 +1,221 @@
+package tools;
+
+import model.ComputerPlayer;
+import model.EvalWeights;
+import model.Game;
+import model.PropertiesFile;
+import model.RuleTable;
+import model.SelfPlay;
+import model.StickThrow;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Tunes ComputerPlayer's evaluation weights (EvalWeights) by SPSA,
+ * simultaneous perturbation stochastic approximation, on self-play.
+ *
+ * Each iteration k perturbs every tuned weight i by +-c_i / k^0.101 with
+ * random signs, and plays the weights plus the perturbation against the
+ * weights minus it in --pairs game pairs on all threads. Both games of a
+ * pair use the same seed, so the same throws, with colours swapped. With S
+ * the score of the plus side over the iteration, each weight moves by
+ *
+ *   a_i / (A + k)^0.602 * (2S - 1) / (c_i / k^0.101 * sign_i)
+ *
+ * where a_i = --learning-rate * c_i^2 and A is a tenth of --iterations.
+ * exited stays fixed by default: only ratios between weights matter, so it
+ * sets the scale.
+ *
+ * The weights and the next iteration are written to --checkpoint after
+ * every iteration (replacing the file in one step); a run with an existing
+ * checkpoint resumes from it with the same throws and perturbations it
+ * would have used without the interruption. --output receives the final
+ * weights, for instance for a Tournament variant's weights key.
+ *
+ * Usage: java tools.SpsaTuner [--iterations N] [--pairs N] [--threads N] [--depth N]
+ *            [--checkpoint file] [--output file] [--start file] [--tune name,...]
+ *            [--learning-rate R] [--seed S] [--max-turns N] [--sticks uniform|four-sticks]
+ */
+public class SpsaTuner {
+    private static final double ALPHA = 0.602; // Standard SPSA gain exponents
+    private static final double GAMMA = 0.101;
+
+    // Perturbation size per weight at iteration 1, in EvalWeights.NAMES order
+    private static final double[] PERTURBATION = {100, 0.5, 10, 8, 10, 10, 10, 8};
+
+    private int iterations = 100;
+    private int pairs = 500;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private int depth = 2;
+    private Path checkpoint = Path.of("spsa-checkpoint.properties");
+    private Path output = null;
+    private Path start = null;
+    private boolean[] tuned = new boolean[EvalWeights.NAMES.size()];
+    private double learningRate = 20.0;
+    private long seed = System.nanoTime();
+    private int maxTurns = 2000;
+    private StickThrow stickThrow = StickThrow.UNIFORM;
+
+    public static void main(String[] args) throws Exception {
+        SpsaTuner tuner = new SpsaTuner();
+        try {
+            tuner.parseArgs(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: java tools.SpsaTuner [--iterations N] [--pairs N] [--threads N] [--depth N] "
+                    + "[--checkpoint file] [--output file] [--start file] [--tune name,...] "
+                    + "[--learning-rate R] [--seed S] [--max-turns N] [--sticks uniform|four-sticks]");
+            System.exit(2);
+        }
+        tuner.run();
+    }
+
+    private void parseArgs(String[] args) {
+        setTuned("progress,happiness,water,threeTruths,reAtoum,horus,exitFlag");
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (i + 1 >= args.length) throw new IllegalArgumentException("Missing value for " + arg);
+            String value = args[++i];
+            switch (arg) {
+                case "--iterations" -> iterations = Integer.parseInt(value);
+                case "--pairs" -> pairs = Integer.parseInt(value);
+                case "--threads" -> threads = Integer.parseInt(value);
+                case "--depth" -> depth = Integer.parseInt(value);
+                case "--checkpoint" -> checkpoint = Path.of(value);
+                case "--output" -> output = Path.of(value);
+                case "--start" -> start = Path.of(value);
+                case "--tune" -> setTuned(value);
+                case "--learning-rate" -> learningRate = Double.parseDouble(value);
+                case "--seed" -> seed = Long.parseLong(value);
+                case "--max-turns" -> maxTurns = Integer.parseInt(value);
+                case "--sticks" -> stickThrow = StickThrow.byName(value);
+                default -> throw new IllegalArgumentException("Unknown option " + arg);
+            }
+        }
+        if (iterations < 1 || pairs < 1 || threads < 1 || depth < 1 || learningRate <= 0) {
+            throw new IllegalArgumentException("Bad --iterations/--pairs/--threads/--depth/--learning-rate");
+        }
+    }
+
+    private void setTuned(String names) {
+        tuned = new boolean[EvalWeights.NAMES.size()];
+        for (String name : names.split(",")) {
+            int index = EvalWeights.NAMES.indexOf(name.trim());
+            if (index < 0) throw new IllegalArgumentException("Unknown weight " + name + " (one of " + EvalWeights.NAMES + ")");
+            tuned[index] = true;
+        }
+    }
+
+    private void run() throws IOException, InterruptedException, ExecutionException {
+        double[] theta = (start != null ? EvalWeights.load(start) : EvalWeights.DEFAULT).toVector();
+        int first = 1;
+        if (Files.exists(checkpoint)) {
+            Properties props = new Properties();
+            try (Reader in = Files.newBufferedReader(checkpoint)) {
+                props.load(in);
+            }
+            theta = EvalWeights.fromProperties(props).toVector();
+            first = Integer.parseInt(props.getProperty("iteration", "1"));
+            seed = Long.parseLong(props.getProperty("seed", Long.toString(seed)));
+            System.out.printf("Resuming from %s at iteration %d%n", checkpoint, first);
+        }
+        System.out.printf("Seed %d, %d threads, depth %d, %d game pairs per iteration%n", seed, threads, depth, pairs);
+        System.out.println("Start: " + EvalWeights.fromVector(theta));
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "spsa");
+            t.setDaemon(true);
+            return t;
+        });
+        double stability = iterations / 10.0; // A
+        try {
+            for (int k = first; k <= iterations; k++) {
+                long begin = System.nanoTime();
+                Random random = new Random(seed * 1_000_003L + k);
+                double[] c = new double[theta.length];
+                double[] delta = new double[theta.length];
+                double[] plus = theta.clone();
+                double[] minus = theta.clone();
+                for (int i = 0; i < theta.length; i++) {
+                    if (!tuned[i]) continue;
+                    c[i] = PERTURBATION[i] / Math.pow(k, GAMMA);
+                    delta[i] = random.nextBoolean() ? 1 : -1;
+                    plus[i] += c[i] * delta[i];
+                    minus[i] -= c[i] * delta[i];
+                }
+
+                double score = playIteration(executor, EvalWeights.fromVector(plus), EvalWeights.fromVector(minus), k);
+                for (int i = 0; i < theta.length; i++) {
+                    if (!tuned[i]) continue;
+                    double gain = learningRate * PERTURBATION[i] * PERTURBATION[i] / Math.pow(stability + k, ALPHA);
+                    theta[i] += gain * (2 * score - 1) / (c[i] * delta[i]);
+                }
+
+                writeCheckpoint(theta, k + 1);
+                double seconds = (System.nanoTime() - begin) / 1e9;
+                System.out.printf("iteration %d  plus scored %.3f  %.1f s (%.0f games/s)  %s%n",
+                        k, score, seconds, 2 * pairs / seconds, EvalWeights.fromVector(theta));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        if (output != null) {
+            EvalWeights.fromVector(theta).store(output, "SpsaTuner, seed " + seed + ", " + iterations + " iterations");
+            System.out.println("Weights written to " + output);
+        }
+    }
+
+    /**
+     * @return Score of plus against minus over all games, draws counting half
+     */
+    private double playIteration(ExecutorService executor, EvalWeights plus, EvalWeights minus, int k)
+            throws InterruptedException, ExecutionException {
+        List<Future<Double>> results = new ArrayList<>();
+        for (int p = 0; p < pairs; p++) {
+            long gameSeed = (seed * 1_000_003L + k) * 1_000_003L + p;
+            results.add(executor.submit(() -> (playGame(plus, minus, gameSeed) + 1.0 - playGame(minus, plus, gameSeed)) / 2));
+        }
+        double total = 0;
+        for (Future<Double> result : results) total += result.get();
+        return total / pairs;
+    }
+
+    /**
+     * @return Player 1's score: 1 for a win, 0.5 for a game stopped at maxTurns, 0 for a loss
+     */
+    private double playGame(EvalWeights player1, EvalWeights player2, long gameSeed) {
+        Game game = new Game(stickThrow, RuleTable.standard(), new Random(gameSeed));
+        int winner = SelfPlay.play(game, player(game, 1, player1), player(game, 2, player2), maxTurns);
+        return winner == 1 ? 1.0 : winner == 2 ? 0.0 : 0.5;
+    }
+
+    private ComputerPlayer player(Game game, int player, EvalWeights weights) {
+        ComputerPlayer computer = new ComputerPlayer(game, player);
+        computer.setVerbose(false);
+        computer.setSearchDepth(depth);
+        computer.setEvalWeights(weights);
+        return computer;
+    }
+
+    /**
+     * Replaces the checkpoint in one step, so an interrupted run leaves the previous one
+     */
+    private void writeCheckpoint(double[] theta, int nextIteration) throws IOException {
+        Properties props = new Properties();
+        EvalWeights.fromVector(theta).toProperties(props);
+        props.setProperty("iteration", Integer.toString(nextIteration));
+        props.setProperty("seed", Long.toString(seed));
+        PropertiesFile.storeAtomically(props, checkpoint, "SpsaTuner checkpoint");
+    }
+}
@@ -0,0 +1,384 @@
+package tools;
+
+import model.ComputerPlayer;
+import model.ComputerStrategy;
+import model.EvalWeights;
+import model.Game;
+import model.GameStats;
+import model.MctsPlayer;
+import model.RuleTable;
+import model.SelfPlay;
+import model.SharedTranspositionTable;
+import model.StickThrow;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Round-robin tournament between computer player variants on all cores.
+ *
+ * Games are played in pairs: both games of a pair use the same roll
+ * sequence (same seed) with the colours swapped, which cancels most of the
+ * luck of the throws. Each pairing reports Elo with a 95% confidence
+ * interval computed from the pair scores, and stops early once a
+ * sequential probability ratio test (H0: elo = elo0, H1: elo = elo1)
+ * accepts either hypothesis.
+ *
+ * A variant is "name:key=value,...". Expectiminimax keys: depth, skip
+ * (chance skip mass), samples (throws sampled per chance node), hash (MB of
+ * off-heap transposition table shared by all games of the variant), weights
+ * (EvalWeights properties file, as SpsaTuner writes). engine=mcts selects
+ * MctsPlayer with keys time (ms per move), iterations (playouts per move)
+ * and threads.
+ *
+ * --stats records GameStats over all games, flushed to the file every
+ * --flush seconds and summarised at the end (see GameStatsReport).
+ *
+ * Usage: java tools.Tournament --variant name:depth=3 --variant name:engine=mcts,time=200 ...
+ *            [--pairs N] [--threads N] [--seed S] [--elo0 E] [--elo1 E]
+ *            [--alpha A] [--beta B] [--sticks uniform|four-sticks] [--max-turns N]
+ *            [--stats file] [--flush seconds]
+ */
+public class Tournament {
+
+    /**
+     * A named computer player configuration
+     */
+    static final class Variant {
+        final String name;
+        boolean mcts = false;
+        int depth = 3;
+        double skipMass = 0.0;
+        int samples = 0;
+        long timeMillis = 100;
+        long iterations = 0;
+        int threads = 1;
+        int hashMegabytes = 0;
+        EvalWeights weights = EvalWeights.DEFAULT;
+        SharedTranspositionTable table; // Shared by every game of this variant, null without hash
+
+        Variant(String spec) {
+            int colon = spec.indexOf(':');
+            this.name = colon < 0 ? spec : spec.substring(0, colon);
+            if (colon < 0 || colon == spec.length() - 1) return;
+            for (String setting : spec.substring(colon + 1).split(",")) {
+                String[] kv = setting.split("=", 2);
+                if (kv.length != 2) throw new IllegalArgumentException("Expected key=value in " + spec);
+                switch (kv[0].trim()) {
+                    case "engine" -> mcts = parseEngine(kv[1].trim());
+                    case "depth" -> depth = Integer.parseInt(kv[1].trim());
+                    case "skip" -> skipMass = Double.parseDouble(kv[1].trim());
+                    case "samples" -> samples = Integer.parseInt(kv[1].trim());
+                    case "time" -> timeMillis = Long.parseLong(kv[1].trim());
+                    case "iterations" -> iterations = Long.parseLong(kv[1].trim());
+                    case "threads" -> threads = Integer.parseInt(kv[1].trim());
+                    case "hash" -> hashMegabytes = Integer.parseInt(kv[1].trim());
+                    case "weights" -> weights = loadWeights(kv[1].trim());
+                    default -> throw new IllegalArgumentException("Unknown variant setting " + kv[0] + " in " + spec);
+                }
+            }
+            if (hashMegabytes > 0 && !mcts) table = new SharedTranspositionTable(hashMegabytes);
+        }
+
+        private static EvalWeights loadWeights(String file) {
+            try {
+                return EvalWeights.load(Path.of(file));
+            } catch (IOException e) {
+                throw new IllegalArgumentException("Cannot read weights " + file + ": " + e.getMessage());
+            }
+        }
+
+        private static boolean parseEngine(String engine) {
+            return switch (engine) {
+                case "mcts" -> true;
+                case "expectiminimax" -> false;
+                default -> throw new IllegalArgumentException("Unknown engine " + engine + " (expectiminimax or mcts)");
+            };
+        }
+
+        ComputerStrategy create(Game game, int player, long seed) {
+            if (mcts) {
+                MctsPlayer computer = new MctsPlayer(game, player);
+                computer.setTimeBudget(iterations > 0 ? 0 : timeMillis);
+                computer.setIterationLimit(iterations);
+                computer.setThreads(threads);
+                computer.setNodePoolSize(1 << 16);
+                computer.setSeed(seed);
+                return computer;
+            }
+            ComputerPlayer computer = new ComputerPlayer(game, player);
+            computer.setVerbose(false);
+            computer.setSearchDepth(depth);
+            computer.setChanceSkipMass(skipMass);
+            computer.setSampledRolls(samples);
+            computer.setEvalWeights(weights);
+            computer.setSharedTable(table);
+            return computer;
+        }
+    }
+
+    /**
+     * Running result of one pairing, from the first variant's point of view
+     */
+    static final class Match {
+        int pairs;
+        int wins, losses, draws;
+        final int[] pentanomial = new int[5]; // Pair score 0, 0.5, 1, 1.5, 2
+
+        void add(int pairPoints) { // Half-points scored in the pair, 0-4
+            pairs++;
+            pentanomial[pairPoints]++;
+        }
+
+        double score() {
+            double total = 0;
+            for (int i = 0; i < 5; i++) total += pentanomial[i] * i / 4.0;
+            return total / pairs;
+        }
+
+        double pairVariance() {
+            double mean = score();
+            double sum = 0;
+            for (int i = 0; i < 5; i++) {
+                double d = i / 4.0 - mean;
+                sum += pentanomial[i] * d * d;
+            }
+            return sum / pairs;
+        }
+
+        /**
+         * Log-likelihood ratio of H1 over H0 (normal approximation on pair scores)
+         */
+        double llr(double elo0, double elo1) {
+            double variance = pairVariance();
+            if (pairs < 2 || variance <= 0) return 0.0;
+            double s0 = expectedScore(elo0);
+            double s1 = expectedScore(elo1);
+            return pairs * (s1 - s0) * (2 * score() - s0 - s1) / (2 * variance);
+        }
+    }
+
+    private final List<Variant> variants = new ArrayList<>();
+    private int maxPairs = 1000;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private long seed = System.nanoTime();
+    private double elo0 = 0.0;
+    private double elo1 = 20.0;
+    private double alpha = 0.05;
+    private double beta = 0.05;
+    private StickThrow stickThrow = StickThrow.UNIFORM;
+    private int maxTurns = 2000;
+    private Path statsFile = null;
+    private int flushSeconds = 30;
+    private GameStats stats = null;
+
+    public static void main(String[] args) throws Exception {
+        Tournament tournament = new Tournament();
+        try {
+            tournament.parseArgs(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: java tools.Tournament --variant name:depth=3 --variant name:engine=mcts,time=200 ... "
+                    + "[--pairs N] [--threads N] [--seed S] [--elo0 E] [--elo1 E] [--alpha A] [--beta B] "
+                    + "[--sticks uniform|four-sticks] [--max-turns N] [--stats file] [--flush seconds]");
+            System.exit(2);
+        }
+        tournament.run();
+    }
+
+    private void parseArgs(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (i + 1 >= args.length) throw new IllegalArgumentException("Missing value for " + arg);
+            String value = args[++i];
+            switch (arg) {
+                case "--variant" -> variants.add(new Variant(value));
+                case "--pairs" -> maxPairs = Integer.parseInt(value);
+                case "--threads" -> threads = Integer.parseInt(value);
+                case "--seed" -> seed = Long.parseLong(value);
+                case "--elo0" -> elo0 = Double.parseDouble(value);
+                case "--elo1" -> elo1 = Double.parseDouble(value);
+                case "--alpha" -> alpha = Double.parseDouble(value);
+                case "--beta" -> beta = Double.parseDouble(value);
+                case "--sticks" -> stickThrow = StickThrow.byName(value);
+                case "--max-turns" -> maxTurns = Integer.parseInt(value);
+                case "--stats" -> statsFile = Path.of(value);
+                case "--flush" -> flushSeconds = Integer.parseInt(value);
+                default -> throw new IllegalArgumentException("Unknown option " + arg);
+            }
+        }
+        if (variants.size() < 2) throw new IllegalArgumentException("Need at least two --variant");
+        if (maxPairs < 1 || threads < 1 || flushSeconds < 1) throw new IllegalArgumentException("Bad --pairs/--threads/--flush");
+    }
+
+    private void run() throws InterruptedException, ExecutionException {
+        System.out.printf("Seed %d, %d threads, SPRT elo0=%.1f elo1=%.1f alpha=%.3f beta=%.3f%n",
+                seed, threads, elo0, elo1, alpha, beta);
+        ExecutorService executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "tournament");
+            t.setDaemon(true);
+            return t;
+        });
+        if (statsFile != null) {
+            stats = new GameStats();
+            stats.flushEvery(statsFile, flushSeconds * 1000L);
+        }
+        try {
+            double[][] elo = new double[variants.size()][variants.size()];
+            for (int a = 0; a < variants.size(); a++) {
+                for (int b = a + 1; b < variants.size(); b++) {
+                    Match match = playMatch(executor, variants.get(a), variants.get(b));
+                    elo[a][b] = eloFromScore(match.score());
+                    elo[b][a] = -elo[a][b];
+                }
+            }
+            printCrossTable(elo);
+        } finally {
+            executor.shutdownNow();
+            // Games still running after an early SPRT stop use the tables until they end
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+            closeTables();
+            closeStats();
+        }
+    }
+
+    private void closeStats() {
+        if (stats == null) return;
+        stats.close();
+        System.out.println();
+        System.out.println(stats.snapshot().format());
+        System.out.println("Statistics written to " + statsFile);
+    }
+
+    private void closeTables() {
+        for (Variant v : variants) {
+            if (v.table == null) continue;
+            System.out.printf("%s hash: %d MB, occupancy %.1f%%, %d probes, %.1f%% hits, %d collisions%n",
+                    v.name, v.table.getSizeBytes() >> 20, 100 * v.table.getOccupancy(), v.table.getProbes(),
+                    100.0 * v.table.getHits() / Math.max(1, v.table.getProbes()), v.table.getCollisions());
+            v.table.close();
+        }
+    }
+
+    private Match playMatch(ExecutorService executor, Variant a, Variant b)
+            throws InterruptedException, ExecutionException {
+        System.out.println();
+        System.out.println(a.name + " vs " + b.name);
+        double lower = Math.log(beta / (1 - alpha));
+        double upper = Math.log((1 - beta) / alpha);
+
+        CompletionService<int[]> results = new ExecutorCompletionService<>(executor);
+        AtomicBoolean decided = new AtomicBoolean(false);
+        // Keep only a few pairs queued per thread so an early stop wastes little work
+        int submitted = 0;
+        int window = threads * 2;
+        while (submitted < Math.min(window, maxPairs)) {
+            submitPair(results, decided, a, b, seed + submitted++);
+        }
+
+        Match match = new Match();
+        long start = System.nanoTime();
+        String verdict = "max pairs reached";
+        while (match.pairs < submitted) {
+            int[] pair = results.take().get();
+            match.wins += pair[0];
+            match.losses += pair[1];
+            match.draws += pair[2];
+            match.add(pair[3]);
+
+            double llr = match.llr(elo0, elo1);
+            if (match.pairs % 50 == 0) report(match, llr, lower, upper, start);
+            if (llr >= upper || llr <= lower) {
+                verdict = llr >= upper ? "H1 accepted (" + a.name + " stronger by >= " + elo1 + ")"
+                                       : "H0 accepted (" + a.name + " not stronger than " + elo0 + ")";
+                decided.set(true);
+                break;
+            }
+            if (submitted < maxPairs) submitPair(results, decided, a, b, seed + submitted++);
+        }
+        report(match, match.llr(elo0, elo1), lower, upper, start);
+        System.out.println("  " + verdict);
+        return match;
+    }
+
+    private void submitPair(CompletionService<int[]> results, AtomicBoolean decided, Variant a, Variant b, long pairSeed) {
+        results.submit(() -> {
+            if (decided.get()) return new int[] {0, 0, 0, 2};
+            // Same seed for both games: identical throws, colours swapped
+            int first = playGame(a, b, pairSeed);   // a is player 1
+            int second = playGame(b, a, pairSeed);  // a is player 2
+            int[] outcome = new int[4];
+            int points = 0;
+            for (int result : new int[] {first == 1 ? 1 : first == 2 ? -1 : 0, second == 2 ? 1 : second == 1 ? -1 : 0}) {
+                if (result > 0) { outcome[0]++; points += 2; }
+                else if (result < 0) outcome[1]++;
+                else { outcome[2]++; points += 1; }
+            }
+            outcome[3] = points;
+            return outcome;
+        });
+    }
+
+    private int playGame(Variant player1, Variant player2, long gameSeed) {
+        Game game = new Game(stickThrow, RuleTable.standard(), new Random(gameSeed));
+        game.setStats(stats);
+        ComputerStrategy first = player1.create(game, 1, gameSeed);
+        ComputerStrategy second = player2.create(game, 2, gameSeed);
+        try {
+            return SelfPlay.play(game, first, second, maxTurns);
+        } finally {
+            first.shutdown();
+            second.shutdown();
+        }
+    }
+
+    private static void report(Match match, double llr, double lower, double upper, long start) {
+        double score = match.score();
+        double margin = 1.96 * Math.sqrt(match.pairVariance() / match.pairs);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("  pairs %d  W/L/D %d/%d/%d  score %.3f  elo %s [%s, %s]  LLR %.2f (%.2f, %.2f)  %.1f games/s%n",
+                match.pairs, match.wins, match.losses, match.draws, score,
+                formatElo(eloFromScore(score)), formatElo(eloFromScore(score - margin)),
+                formatElo(eloFromScore(score + margin)), llr, lower, upper, 2 * match.pairs / seconds);
+    }
+
+    private void printCrossTable(double[][] elo) {
+        System.out.println();
+        System.out.println("Elo difference (row vs column):");
+        StringBuilder header = new StringBuilder(String.format("%-12s", ""));
+        for (Variant v : variants) header.append(String.format("%10s", v.name));
+        System.out.println(header);
+        for (int a = 0; a < variants.size(); a++) {
+            StringBuilder row = new StringBuilder(String.format("%-12s", variants.get(a).name));
+            for (int b = 0; b < variants.size(); b++) {
+                row.append(String.format("%10s", a == b ? "-" : formatElo(elo[a][b])));
+            }
+            System.out.println(row);
+        }
+    }
+
+    static double expectedScore(double elo) {
+        return 1.0 / (1.0 + Math.pow(10.0, -elo / 400.0));
+    }
+
+    static double eloFromScore(double score) {
+        if (score <= 0) return Double.NEGATIVE_INFINITY;
+        if (score >= 1) return Double.POSITIVE_INFINITY;
+        return -400.0 * Math.log10(1.0 / score - 1.0);
+    }
+
+    static String formatElo(double elo) {
+        if (Double.isInfinite(elo)) return elo > 0 ? "+inf" : "-inf";
+        return String.format("%+.1f", elo);
+    }
+}
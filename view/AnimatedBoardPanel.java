@@ -0,0 +1,474 @@
+package view;
+
+import controller.GameController;
+import model.ComputerPlayer;
+import model.GameState;
+import model.Piece;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.geom.AffineTransform;
+import java.awt.image.VolatileImage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The board drawn on a single component, with pieces gliding between
+ * squares instead of jumping: forward moves follow the track, a piece
+ * sent back (swap, failed gate) slides straight there, a Water reset goes
+ * along the track to Water and then to its new square, and exited pieces
+ * fade out.
+ *
+ * The squares are rendered once into a VolatileImage at the display's
+ * pixel scale and redrawn only when the size, scale or screen changes, so
+ * a frame is one image copy plus at most 14 pieces whatever the size. A
+ * Swing Timer repaints at ANIMATION_FPS only while something moves. Clicks
+ * and hover find their square by arithmetic on the board's snake order.
+ */
+public class AnimatedBoardPanel extends BoardView {
+    private static final int COLUMNS = 10;
+    private static final int ROWS = 3;
+    private static final int SQUARES = COLUMNS * ROWS;
+    private static final int MARGIN = 10;
+    private static final int ANIMATION_FPS = 60;
+    private static final int MILLIS_PER_SQUARE = 70; // Glide speed
+    private static final int MIN_GLIDE_MILLIS = 200;
+    private static final int MAX_GLIDE_MILLIS = 700;
+    private static final int FADE_MILLIS = 300;
+
+    /**
+     * A piece on the board, or leaving it
+     */
+    private static final class Sprite {
+        final int owner;
+        Piece piece; // Null for pieces shown by showState
+        boolean canExitNextTurn;
+        int square; // Where the piece is once any glide ends
+        double[] path; // Glide waypoints as (column, row) pairs, null at rest
+        long start; // Glide or fade start, nanoTime
+        long duration; // Nanoseconds
+        long generation; // Board generation the piece was last placed in
+        boolean leaving;
+
+        Sprite(int owner, int square) {
+            this.owner = owner;
+            this.square = square;
+        }
+    }
+
+    private GameController controller;
+    private final Map<Object, Sprite> sprites = new IdentityHashMap<>(); // By Piece, or by GameState piece index
+    private final Integer[] stateKeys = new Integer[GameState.PIECES];
+    private long generation = 0;
+    private int pendingFrom = -1; // showMove
+    private int pendingLanding = -1;
+    private int hovered = -1;
+    private final double[] hintValues = new double[SQUARES];
+    private final boolean[] hintPending = new boolean[SQUARES];
+    private int bestHint = -1;
+    private final Timer animationTimer;
+    private VolatileImage boardImage;
+    private double boardScaleX, boardScaleY;
+
+    // Geometry of the current size, set by layoutBoard
+    private int cell, originX, originY;
+
+    public AnimatedBoardPanel(GameController controller) {
+        this.controller = controller;
+        setBackground(new Color(222, 184, 135)); // Burlywood background
+        setPreferredSize(new Dimension(COLUMNS * 70 + 2 * MARGIN, ROWS * 70 + 2 * MARGIN));
+        setToolTipText(""); // Register with the tooltip manager; getToolTipText gives the text
+        Arrays.fill(hintValues, Double.NaN);
+        for (int i = 0; i < stateKeys.length; i++) stateKeys[i] = i;
+
+        animationTimer = new Timer(1000 / ANIMATION_FPS, e -> repaint());
+        animationTimer.setCoalesce(true);
+
+        MouseAdapter mouse = new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                Piece piece = clickablePieceAt(squareAt(e.getX(), e.getY()));
+                if (piece != null && AnimatedBoardPanel.this.controller != null) {
+                    AnimatedBoardPanel.this.controller.onPieceSelected(piece);
+                }
+            }
+
+            @Override
+            public void mouseMoved(MouseEvent e) {
+                setHovered(squareAt(e.getX(), e.getY()));
+            }
+
+            @Override
+            public void mouseExited(MouseEvent e) {
+                setHovered(-1);
+            }
+        };
+        addMouseListener(mouse);
+        addMouseMotionListener(mouse);
+    }
+
+    @Override
+    public void setController(GameController controller) {
+        this.controller = controller;
+    }
+
+    @Override
+    public void clearBoard() {
+        generation++;
+        repaint();
+    }
+
+    @Override
+    public void placePiece(int index, Piece piece) {
+        if (index < 0 || index >= SQUARES) return;
+        Sprite sprite = place(piece, piece.getOwner(), index);
+        sprite.piece = piece;
+        sprite.canExitNextTurn = piece.canExitNextTurn();
+    }
+
+    @Override
+    public void showState(GameState state) {
+        generation++;
+        for (int i = 0; i < GameState.PIECES; i++) {
+            int square = state.pieceSquare(i);
+            if (square < 0) continue;
+            place(stateKeys[i], GameState.pieceOwner(i), square).canExitNextTurn = state.pieceCanExitNextTurn(i);
+        }
+        repaint();
+    }
+
+    @Override
+    public void showMove(int fromSquare, int landingSquare) {
+        pendingFrom = fromSquare;
+        pendingLanding = landingSquare;
+    }
+
+    private Sprite place(Object key, int owner, int square) {
+        Sprite sprite = sprites.get(key);
+        if (sprite == null || sprite.leaving) {
+            sprite = new Sprite(owner, square);
+            sprites.put(key, sprite);
+        } else if (sprite.square != square) {
+            glide(sprite, square);
+        }
+        sprite.generation = generation;
+        repaint();
+        return sprite;
+    }
+
+    /**
+     * Starts a glide from where the sprite is drawn now to square
+     */
+    private void glide(Sprite sprite, int square) {
+        long now = System.nanoTime();
+        List<double[]> points = new ArrayList<>();
+        boolean atRest = sprite.path == null;
+        points.add(position(sprite, now));
+        if (sprite.square == pendingFrom && pendingLanding >= 0) {
+            addTrack(points, sprite.square, pendingLanding);
+            if (pendingLanding != square) points.add(center(square));
+            pendingFrom = -1;
+        } else if (atRest && square > sprite.square) {
+            addTrack(points, sprite.square, square);
+        } else {
+            points.add(center(square));
+        }
+        double[] path = new double[points.size() * 2];
+        for (int i = 0; i < points.size(); i++) {
+            path[2 * i] = points.get(i)[0];
+            path[2 * i + 1] = points.get(i)[1];
+        }
+        long millis = Math.round(length(path) * MILLIS_PER_SQUARE);
+        sprite.path = path;
+        sprite.start = now;
+        sprite.duration = Math.max(MIN_GLIDE_MILLIS, Math.min(MAX_GLIDE_MILLIS, millis)) * 1_000_000L;
+        sprite.square = square;
+    }
+
+    private static void addTrack(List<double[]> points, int from, int to) {
+        for (int square = from + 1; square <= to; square++) points.add(center(square));
+    }
+
+    // Board coordinates of a square's centre: the middle row runs right to left
+    private static double[] center(int square) {
+        int row = square / COLUMNS;
+        int col = row == 1 ? COLUMNS - 1 - square % COLUMNS : square % COLUMNS;
+        return new double[] {col + 0.5, row + 0.5};
+    }
+
+    private static double length(double[] path) {
+        double total = 0;
+        for (int i = 2; i < path.length; i += 2) total += Math.hypot(path[i] - path[i - 2], path[i + 1] - path[i - 1]);
+        return total;
+    }
+
+    /**
+     * Board coordinates of the sprite at time now; ends a finished glide
+     */
+    private static double[] position(Sprite sprite, long now) {
+        if (sprite.path == null) return center(sprite.square);
+        double t = Math.min(1.0, (double) (now - sprite.start) / sprite.duration);
+        if (t >= 1.0) {
+            sprite.path = null;
+            return center(sprite.square);
+        }
+        double eased = t * t * (3 - 2 * t);
+        double remaining = eased * length(sprite.path);
+        double[] path = sprite.path;
+        for (int i = 2; i < path.length; i += 2) {
+            double segment = Math.hypot(path[i] - path[i - 2], path[i + 1] - path[i - 1]);
+            if (remaining <= segment && segment > 0) {
+                double f = remaining / segment;
+                return new double[] {path[i - 2] + f * (path[i] - path[i - 2]), path[i - 1] + f * (path[i + 1] - path[i - 1])};
+            }
+            remaining -= segment;
+        }
+        return new double[] {path[path.length - 2], path[path.length - 1]};
+    }
+
+    // Hit-testing
+
+    private void layoutBoard() {
+        cell = Math.max(1, Math.min((getWidth() - 2 * MARGIN) / COLUMNS, (getHeight() - 2 * MARGIN) / ROWS));
+        originX = (getWidth() - COLUMNS * cell) / 2;
+        originY = (getHeight() - ROWS * cell) / 2;
+    }
+
+    /**
+     * @return The square under a point, -1 if none
+     */
+    private int squareAt(int x, int y) {
+        layoutBoard();
+        if (x < originX || y < originY) return -1;
+        int col = (x - originX) / cell;
+        int row = (y - originY) / cell;
+        if (col >= COLUMNS || row >= ROWS) return -1;
+        return row * COLUMNS + (row == 1 ? COLUMNS - 1 - col : col);
+    }
+
+    private Piece clickablePieceAt(int square) {
+        if (square < 0) return null;
+        for (Sprite sprite : sprites.values()) {
+            if (!sprite.leaving && sprite.piece != null && sprite.square == square) return sprite.piece;
+        }
+        return null;
+    }
+
+    private void setHovered(int square) {
+        if (square == hovered) return;
+        hovered = square;
+        setCursor(clickablePieceAt(square) != null ? new Cursor(Cursor.HAND_CURSOR) : Cursor.getDefaultCursor());
+        repaint();
+    }
+
+    @Override
+    public String getToolTipText(MouseEvent e) {
+        int square = squareAt(e.getX(), e.getY());
+        if (square < 0) return null;
+        if (hintPending[square]) return "Analysing move...";
+        if (!Double.isNaN(hintValues[square])) return "Expected value of moving this piece: " + formatHint(hintValues[square]);
+        return null;
+    }
+
+    // Move hints overlay
+
+    @Override
+    public void clearMoveHints() {
+        Arrays.fill(hintValues, Double.NaN);
+        Arrays.fill(hintPending, false);
+        bestHint = -1;
+        repaint();
+    }
+
+    @Override
+    public void setMoveHintPending(int index) {
+        hintPending[index] = true;
+        hintValues[index] = Double.NaN;
+        repaint();
+    }
+
+    @Override
+    public void setMoveHint(int index, double value) {
+        hintPending[index] = false;
+        hintValues[index] = value;
+        // Highlight the best finished hint
+        bestHint = -1;
+        for (int i = 0; i < SQUARES; i++) {
+            if (!Double.isNaN(hintValues[i]) && (bestHint < 0 || hintValues[i] > hintValues[bestHint])) bestHint = i;
+        }
+        repaint();
+    }
+
+    private static String formatHint(double value) {
+        if (ComputerPlayer.isForcedWin(value)) return "win";
+        if (ComputerPlayer.isForcedLoss(value)) return "loss";
+        return String.format("%+.1f", value);
+    }
+
+    // Painting
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        layoutBoard();
+        Graphics2D g2d = (Graphics2D) g.create();
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        drawSquares(g2d);
+
+        if (clickablePieceAt(hovered) != null) {
+            double[] c = center(hovered);
+            g2d.setColor(new Color(255, 255, 255, 70));
+            g2d.fillRoundRect(x(c[0]) - cell / 2 + 2, y(c[1]) - cell / 2 + 2, cell - 4, cell - 4, 8, 8);
+        }
+
+        long now = System.nanoTime();
+        boolean moving = false;
+        for (Iterator<Sprite> it = sprites.values().iterator(); it.hasNext(); ) {
+            Sprite sprite = it.next();
+            if (!sprite.leaving && sprite.generation != generation) { // Not placed since the last clear: exited
+                sprite.leaving = true;
+                sprite.start = now;
+                sprite.path = null;
+            }
+            float alpha = 1f;
+            if (sprite.leaving) {
+                alpha = 1f - (float) (now - sprite.start) / (FADE_MILLIS * 1_000_000L);
+                if (alpha <= 0) {
+                    it.remove();
+                    continue;
+                }
+            }
+            double[] p = position(sprite, now);
+            moving |= sprite.leaving || sprite.path != null;
+            drawPiece(g2d, sprite, x(p[0]), y(p[1]), alpha);
+        }
+
+        for (int square = 0; square < SQUARES; square++) {
+            if (hintPending[square] || !Double.isNaN(hintValues[square])) drawHint(g2d, square);
+        }
+        g2d.dispose();
+        pendingFrom = -1; // A showMove whose piece was not placed (it exited)
+
+        if (moving && !animationTimer.isRunning()) animationTimer.start();
+        else if (!moving && animationTimer.isRunning()) animationTimer.stop();
+    }
+
+    private int x(double col) { return originX + (int) Math.round(col * cell); }
+
+    private int y(double row) { return originY + (int) Math.round(row * cell); }
+
+    /**
+     * Copies the squares from boardImage, rendering it first if it is
+     * missing, lost or of the wrong size or scale
+     */
+    private void drawSquares(Graphics2D g2d) {
+        GraphicsConfiguration gc = getGraphicsConfiguration();
+        if (gc == null) { // Not on screen (printing, headless)
+            paintSquares(g2d);
+            return;
+        }
+        AffineTransform transform = g2d.getTransform();
+        double scaleX = transform.getScaleX();
+        double scaleY = transform.getScaleY();
+        int width = (int) Math.ceil(getWidth() * scaleX);
+        int height = (int) Math.ceil(getHeight() * scaleY);
+        if (width <= 0 || height <= 0) return;
+        do {
+            int status = boardImage == null || boardImage.getWidth() != width || boardImage.getHeight() != height
+                    || boardScaleX != scaleX || boardScaleY != scaleY
+                ? VolatileImage.IMAGE_INCOMPATIBLE : boardImage.validate(gc);
+            if (status == VolatileImage.IMAGE_INCOMPATIBLE) {
+                if (boardImage != null) boardImage.flush();
+                boardImage = gc.createCompatibleVolatileImage(width, height, Transparency.OPAQUE);
+                boardScaleX = scaleX;
+                boardScaleY = scaleY;
+                status = VolatileImage.IMAGE_RESTORED;
+            }
+            if (status == VolatileImage.IMAGE_RESTORED) {
+                Graphics2D image = boardImage.createGraphics();
+                image.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+                image.scale(scaleX, scaleY);
+                image.setColor(getBackground());
+                image.fillRect(0, 0, getWidth(), getHeight());
+                paintSquares(image);
+                image.dispose();
+            }
+            g2d.drawImage(boardImage, 0, 0, getWidth(), getHeight(), null);
+        } while (boardImage.contentsLost());
+    }
+
+    private void paintSquares(Graphics2D g2d) {
+        Font nameFont = new Font("Arial", Font.PLAIN, Math.max(8, cell / 8));
+        for (int square = 0; square < SQUARES; square++) {
+            double[] c = center(square);
+            int left = x(c[0]) - cell / 2;
+            int top = y(c[1]) - cell / 2;
+            Color cellColor;
+            String cellName = "";
+            switch (square + 1) { // 1-indexed, as CellPanel
+                case 15 -> { cellColor = new Color(255, 165, 0); cellName = "Rebirth"; }
+                case 26 -> { cellColor = new Color(50, 205, 50); cellName = "Happiness"; }
+                case 27 -> { cellColor = new Color(0, 191, 255); cellName = "Water"; }
+                case 28 -> { cellColor = new Color(255, 20, 147); cellName = "3 Truths"; }
+                case 29 -> { cellColor = new Color(255, 255, 0); cellName = "Re-Atoum"; }
+                case 30 -> { cellColor = new Color(255, 192, 203); cellName = "Horus"; }
+                default -> cellColor = new Color(245, 235, 200);
+            }
+            g2d.setColor(cellColor);
+            g2d.fillRoundRect(left + 2, top + 2, cell - 4, cell - 4, 8, 8);
+            g2d.setColor(new Color(139, 69, 19));
+            g2d.setStroke(new BasicStroke(2));
+            g2d.drawRoundRect(left + 2, top + 2, cell - 4, cell - 4, 8, 8);
+            if (!cellName.isEmpty()) {
+                g2d.setColor(new Color(0, 0, 0, 100));
+                g2d.setFont(nameFont);
+                FontMetrics fm = g2d.getFontMetrics();
+                g2d.drawString(cellName, left + (cell - fm.stringWidth(cellName)) / 2, top + cell - 5);
+            }
+        }
+    }
+
+    private void drawPiece(Graphics2D g2d, Sprite sprite, int cx, int cy, float alpha) {
+        Graphics2D g = (Graphics2D) g2d.create();
+        if (alpha < 1f) g.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, alpha));
+        int size = cell * 5 / 7;
+        int left = cx - size / 2;
+        int top = cy - size / 2;
+        Color pieceColor = sprite.owner == 1 ? new Color(220, 20, 60) : new Color(30, 144, 255); // Red or Blue
+
+        g.setColor(new Color(0, 0, 0, 50));
+        g.fillOval(left + 2, top + 2, size, size);
+        g.setPaint(new GradientPaint(left, top, pieceColor.brighter(), left + size, top + size, pieceColor.darker()));
+        g.fillOval(left, top, size, size);
+        g.setColor(sprite.canExitNextTurn ? Color.WHITE : pieceColor.darker());
+        g.setStroke(new BasicStroke(2));
+        g.drawOval(left, top, size, size);
+
+        g.setColor(Color.WHITE);
+        g.setFont(new Font("Arial", Font.BOLD, Math.max(10, cell / 4)));
+        FontMetrics fm = g.getFontMetrics();
+        String text = String.valueOf(sprite.owner);
+        g.drawString(text, cx - fm.stringWidth(text) / 2, cy + fm.getAscent() / 2 - 2);
+        g.dispose();
+    }
+
+    private void drawHint(Graphics2D g2d, int square) {
+        double[] c = center(square);
+        int right = x(c[0]) + cell / 2;
+        int top = y(c[1]) - cell / 2;
+        String text = hintPending[square] ? "..." : formatHint(hintValues[square]);
+        g2d.setFont(new Font("Arial", Font.BOLD, 10));
+        FontMetrics fm = g2d.getFontMetrics();
+        int w = fm.stringWidth(text) + 6;
+        g2d.setColor(square == bestHint ? new Color(255, 215, 0, 230) : new Color(255, 255, 255, 200));
+        g2d.fillRoundRect(right - w - 4, top + 4, w, fm.getHeight(), 6, 6);
+        g2d.setColor(new Color(60, 30, 0));
+        g2d.drawString(text, right - w - 1, top + 4 + fm.getAscent());
+    }
+}
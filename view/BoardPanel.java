@@ -5,7 +5,7 @@ import controller.GameController;
 import javax.swing.*;
 import java.awt.*;
 
-public class BoardPanel extends JPanel {
+public class BoardPanel extends BoardView {
 
     private GameController controller;
     private CellPanel[] cells;
@@ -38,20 +38,54 @@ public class BoardPanel extends JPanel {
         }
     }
 
+    @Override
     public void setController(GameController controller) {
         this.controller = controller;
         for (CellPanel cell : cells)
             cell.setController(controller);
     }
 
+    @Override
     public void clearBoard() {
         for (CellPanel cell : cells)
             cell.clear();
     }
 
+    @Override
     public void placePiece(int index, model.Piece piece) {
         if (index >= 0 && index < 30)
             cells[index].setPiece(piece);
     }
 
+    // Only changed cells repaint
+    @Override
+    public void showState(model.GameState state) {
+        for (CellPanel cell : cells)
+            cell.showOwner(state.ownerAt(cell.getIndex()));
+    }
+
+    @Override
+    public void clearMoveHints() {
+        for (CellPanel cell : cells)
+            cell.clearHint();
+    }
+
+    @Override
+    public void setMoveHintPending(int index) {
+        cells[index].setHintPending();
+    }
+
+    @Override
+    public void setMoveHint(int index, double value) {
+        cells[index].setHint(value);
+        // Highlight the best finished hint
+        int best = -1;
+        for (CellPanel cell : cells) {
+            if (cell.hasHintValue() && (best < 0 || cell.getHintValue() > cells[best].getHintValue()))
+                best = cell.getIndex();
+        }
+        for (CellPanel cell : cells)
+            cell.setBestHint(cell.getIndex() == best);
+    }
+
 }
@@ -0,0 +1,42 @@
+package view;
+
+import controller.GameController;
+import model.GameState;
+import model.Piece;
+
+import javax.swing.*;
+
+/**
+ * What the controllers need from a board component: BoardPanel (one
+ * CellPanel per square) or AnimatedBoardPanel (one canvas, animated moves).
+ */
+public abstract class BoardView extends JPanel {
+
+    public abstract void setController(GameController controller);
+
+    public abstract void clearBoard();
+
+    /**
+     * Shows piece on square; pieces placed after clearBoard are the whole board
+     */
+    public abstract void placePiece(int index, Piece piece);
+
+    /**
+     * Draws a published position; pieces shown this way cannot be clicked
+     */
+    public abstract void showState(GameState state);
+
+    /**
+     * The piece now on fromSquare is about to be moved and passed landingSquare
+     * (House of Water before a reset); a board that animates moves shows the
+     * next placement of that piece going through there
+     */
+    public void showMove(int fromSquare, int landingSquare) {}
+
+    // Move hints overlay
+    public abstract void clearMoveHints();
+
+    public abstract void setMoveHintPending(int index);
+
+    public abstract void setMoveHint(int index, double value);
+}
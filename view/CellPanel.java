@@ -1,6 +1,7 @@
 package view;
 
 import controller.GameController;
+import model.ComputerPlayer;
 import model.Piece;
 
 import javax.swing.*;
@@ -11,9 +12,13 @@ import java.awt.event.MouseEvent;
 public class CellPanel extends JPanel {
 
     private Piece piece;
+    private int owner = 0; // Owner of the piece shown, 0 for none
     private GameController controller;
     private final int index;
     private boolean isHovered = false;
+    private boolean hintPending = false;
+    private double hintValue = Double.NaN; // Expected value of moving this piece, NaN if none
+    private boolean bestHint = false;
 
     public CellPanel(int index, GameController controller) {
         this.index = index;
@@ -58,14 +63,67 @@ public class CellPanel extends JPanel {
 
     public void setPiece(Piece piece) {
         this.piece = piece;
+        this.owner = piece.getOwner();
         repaint();
     }
 
     public void clear() {
         this.piece = null;
+        this.owner = 0;
         repaint();
     }
 
+    /**
+     * Shows a piece of owner (0 for none) that cannot be clicked; repaints
+     * only if the cell changes
+     */
+    public void showOwner(int owner) {
+        if (piece == null && this.owner == owner) return;
+        this.piece = null;
+        this.owner = owner;
+        repaint();
+    }
+
+    public int getIndex() { return index; }
+
+    public void clearHint() {
+        if (!hintPending && Double.isNaN(hintValue)) return;
+        hintPending = false;
+        hintValue = Double.NaN;
+        bestHint = false;
+        setToolTipText(null);
+        repaint();
+    }
+
+    public void setHintPending() {
+        hintPending = true;
+        hintValue = Double.NaN;
+        setToolTipText("Analysing move...");
+        repaint();
+    }
+
+    public void setHint(double value) {
+        hintPending = false;
+        hintValue = value;
+        setToolTipText("Expected value of moving this piece: " + formatHint(value));
+        repaint();
+    }
+
+    public boolean hasHintValue() { return !Double.isNaN(hintValue); }
+    public double getHintValue() { return hintValue; }
+
+    public void setBestHint(boolean bestHint) {
+        if (this.bestHint == bestHint) return;
+        this.bestHint = bestHint;
+        repaint();
+    }
+
+    private static String formatHint(double value) {
+        if (ComputerPlayer.isForcedWin(value)) return "win";
+        if (ComputerPlayer.isForcedLoss(value)) return "loss";
+        return String.format("%+.1f", value);
+    }
+
     @Override
     protected void paintComponent(Graphics g) {
         super.paintComponent(g);
@@ -112,8 +170,7 @@ public class CellPanel extends JPanel {
         g2d.fillRoundRect(2, 2, getWidth() - 4, getHeight() - 4, 8, 8);
 
         // Draw piece with gradient effect
-        if (piece != null) {
-            int owner = piece.getOwner();
+        if (owner != 0) {
             Color pieceColor = owner == 1 ? new Color(220, 20, 60) : new Color(30, 144, 255); // Red or Blue
             
             // Draw piece shadow
@@ -152,6 +209,18 @@ public class CellPanel extends JPanel {
             g2d.drawString(cellName, x, getHeight() - 5);
         }
 
+        // Draw move hint badge
+        if (hintPending || hasHintValue()) {
+            String text = hintPending ? "..." : formatHint(hintValue);
+            g2d.setFont(new Font("Arial", Font.BOLD, 10));
+            FontMetrics fm = g2d.getFontMetrics();
+            int w = fm.stringWidth(text) + 6;
+            g2d.setColor(bestHint ? new Color(255, 215, 0, 230) : new Color(255, 255, 255, 200));
+            g2d.fillRoundRect(getWidth() - w - 4, 4, w, fm.getHeight(), 6, 6);
+            g2d.setColor(new Color(60, 30, 0));
+            g2d.drawString(text, getWidth() - w - 1, 4 + fm.getAscent());
+        }
+
         // Draw border
         g2d.setColor(new Color(139, 69, 19));
         g2d.setStroke(new BasicStroke(2));
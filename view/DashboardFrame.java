@@ -0,0 +1,182 @@
+package view;
+
+import model.ComputerPlayer;
+import model.ComputerStrategy;
+import model.Game;
+import model.GameState;
+import model.Piece;
+import model.SelfPlay;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * A grid of live mini-boards, each following a game that runs elsewhere in
+ * the JVM. Boards only read the position their game publishes
+ * (Game.getState), so games never wait for the view.
+ *
+ * One Swing Timer polls every board FRAMES_PER_SECOND times a second; a
+ * board repaints only if its game has a new position, and all boards draw
+ * from one SpriteAtlas, so hundreds of boards cost little more than the
+ * ones actually changing.
+ *
+ * main watches computer-vs-computer games:
+ * Usage: java view.DashboardFrame [--games N] [--depth N] [--delay ms] [--columns N]
+ */
+public class DashboardFrame extends JFrame {
+    public static final int FRAMES_PER_SECOND = 20;
+    private static final int MAX_TURNS = 2000; // SelfPlay limit per game
+    private static final int PAUSE_AFTER_GAME = 2000; // ms a finished game stays on its board
+
+    private final JPanel grid;
+    private final JLabel statusLabel;
+    private final List<MiniBoard> boards = new ArrayList<>();
+    private final Timer frameTimer;
+    private Supplier<String> status = () -> "";
+
+    /**
+     * @param columns Boards per row
+     */
+    public DashboardFrame(String title, int columns) {
+        setTitle("Senet Dashboard - " + title);
+        setSize(1100, 750);
+        setDefaultCloseOperation(EXIT_ON_CLOSE);
+        setLocationRelativeTo(null);
+        setLayout(new BorderLayout());
+
+        grid = new JPanel(new GridLayout(0, columns, 6, 6));
+        grid.setBackground(new Color(245, 245, 220));
+        grid.setBorder(BorderFactory.createEmptyBorder(8, 8, 8, 8));
+        JPanel holder = new JPanel(new FlowLayout(FlowLayout.LEFT, 0, 0)); // Keep boards at their preferred size
+        holder.setBackground(new Color(245, 245, 220));
+        holder.add(grid);
+        JScrollPane scroll = new JScrollPane(holder);
+        scroll.getVerticalScrollBar().setUnitIncrement(16);
+
+        statusLabel = new JLabel(" ");
+        statusLabel.setFont(new Font("Arial", Font.BOLD, 14));
+        statusLabel.setForeground(new Color(139, 69, 19));
+        statusLabel.setBorder(BorderFactory.createEmptyBorder(6, 10, 6, 10));
+
+        add(statusLabel, BorderLayout.NORTH);
+        add(scroll, BorderLayout.CENTER);
+
+        frameTimer = new Timer(1000 / FRAMES_PER_SECOND, e -> refresh());
+        frameTimer.setCoalesce(true);
+        frameTimer.start();
+    }
+
+    /**
+     * Adds a board following source, which is called on the EDT each frame
+     * and must not block (Game::getState of some game is typical). Call on the EDT
+     */
+    public void addBoard(String title, Supplier<GameState> source) {
+        MiniBoard board = new MiniBoard(title, source);
+        boards.add(board);
+        grid.add(board);
+        grid.revalidate();
+    }
+
+    /**
+     * Text for the status line, asked for once a frame on the EDT
+     */
+    public void setStatus(Supplier<String> status) { this.status = status; }
+
+    private void refresh() {
+        int redrawn = 0;
+        for (MiniBoard board : boards) {
+            if (board.refresh()) redrawn++;
+        }
+        statusLabel.setText(String.format("%d boards, %d redrawn   %s", boards.size(), redrawn, status.get()));
+    }
+
+    public static void main(String[] args) {
+        int games = 100;
+        int depth = 2;
+        int delay = 100;
+        int columns = 8;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                if (i + 1 >= args.length) throw new IllegalArgumentException("Missing value for " + args[i]);
+                int value = Integer.parseInt(args[++i]);
+                switch (args[i - 1]) {
+                    case "--games" -> games = value;
+                    case "--depth" -> depth = value;
+                    case "--delay" -> delay = value;
+                    case "--columns" -> columns = value;
+                    default -> throw new IllegalArgumentException("Unknown option " + args[i - 1]);
+                }
+            }
+            if (games < 1 || depth < 1 || delay < 0 || columns < 1) throw new IllegalArgumentException("Bad option value");
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: java view.DashboardFrame [--games N] [--depth N] [--delay ms] [--columns N]");
+            System.exit(2);
+        }
+
+        int gameCount = games, searchDepth = depth, moveDelay = delay, gridColumns = columns;
+        AtomicInteger finished = new AtomicInteger();
+        AtomicInteger[] wins = {new AtomicInteger(), new AtomicInteger(), new AtomicInteger()};
+        SwingUtilities.invokeLater(() -> {
+            DashboardFrame frame = new DashboardFrame(gameCount + " computer games", gridColumns);
+            for (int i = 0; i < gameCount; i++) {
+                AtomicReference<Game> current = new AtomicReference<>(new Game());
+                frame.addBoard("Game " + (i + 1), () -> current.get().getState());
+                Thread worker = new Thread(() -> playForever(current, searchDepth, moveDelay, finished, wins), "dashboard-game-" + (i + 1));
+                worker.setDaemon(true);
+                worker.start();
+            }
+            frame.setStatus(() -> String.format("%d games finished, player 1 won %d, player 2 won %d",
+                finished.get(), wins[1].get(), wins[2].get()));
+            frame.setVisible(true);
+        });
+    }
+
+    /**
+     * Plays game after game into current until the JVM exits
+     */
+    private static void playForever(AtomicReference<Game> current, int depth, int delay,
+                                    AtomicInteger finished, AtomicInteger[] wins) {
+        try {
+            while (true) {
+                Game game = current.get();
+                int winner = SelfPlay.play(game, paced(game, 1, depth, delay), paced(game, 2, depth, delay), MAX_TURNS);
+                finished.incrementAndGet();
+                wins[winner].incrementAndGet();
+                Thread.sleep(PAUSE_AFTER_GAME);
+                current.set(new Game());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static ComputerStrategy paced(Game game, int player, int depth, int delay) {
+        ComputerPlayer computer = new ComputerPlayer(game, player);
+        computer.setVerbose(false);
+        computer.setSearchDepth(depth);
+        if (delay == 0) return computer;
+        return new ComputerStrategy() {
+            @Override
+            public Piece makeMove(int roll) {
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return computer.makeMove(roll);
+            }
+
+            @Override
+            public int getAiPlayer() { return computer.getAiPlayer(); }
+
+            @Override
+            public double getLastBestValue() { return computer.getLastBestValue(); }
+        };
+    }
+}
@@ -1,22 +1,68 @@
 package view;
 
+import controller.EdtWatchdog;
 import controller.GameController;
+import controller.SpectatorController;
+import controller.TurnPipeline;
+import model.ComputerPlayer;
+import model.ComputerStrategy;
 import model.Game;
+import model.MctsPlayer;
 
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.util.Hashtable;
+import java.util.List;
+import java.util.Map;
 
 public class GameFrame extends JFrame {
+    public enum Mode {
+        TWO_PLAYERS("Two Players"),
+        VS_COMPUTER("Player vs Computer"),
+        COMPUTER_VS_COMPUTER("Computer vs Computer");
+
+        private final String title;
+
+        Mode(String title) { this.title = title; }
+    }
+
+    // Computer turn pacing: name, delay before rolling, delay before moving (ms)
+    private static final String[] SPEED_NAMES = {"Normal", "Fast", "Instant"};
+    private static final int[][] SPEED_DELAYS = {
+        {TurnPipeline.DEFAULT_ROLL_DELAY, TurnPipeline.DEFAULT_MOVE_DELAY}, {250, 250}, {0, 0}
+    };
+
+    // Spectator speed slider: moves per second = 10^(value / 10), the top value for full speed
+    private static final int SPEED_STEPS = 30;
+
     private JLabel rollLabel;
     private JButton rollButton;
-    private boolean computerMode;
     private GameController controller;
+    private SpectatorController spectator;
 
     public GameFrame(boolean computerMode) {
-        this.computerMode = computerMode;
-        setTitle("Senet Game - " + (computerMode ? "Player vs Computer" : "Two Players"));
+        this(computerMode, false);
+    }
+
+    /**
+     * @param monteCarlo Computer opponent uses MctsPlayer instead of expectiminimax
+     */
+    public GameFrame(boolean computerMode, boolean monteCarlo) {
+        this(computerMode ? Mode.VS_COMPUTER : Mode.TWO_PLAYERS, monteCarlo);
+    }
+
+    public GameFrame(Mode mode, boolean monteCarlo) {
+        this(mode, monteCarlo, false);
+    }
+
+    /**
+     * @param monteCarlo Computer players use MctsPlayer instead of expectiminimax
+     * @param animatedBoard Draw the board with AnimatedBoardPanel instead of BoardPanel
+     */
+    public GameFrame(Mode mode, boolean monteCarlo, boolean animatedBoard) {
+        setTitle("Senet Game - " + mode.title);
         setSize(1000, 700);
         setDefaultCloseOperation(EXIT_ON_CLOSE);
         setLocationRelativeTo(null);
@@ -29,20 +75,30 @@ public class GameFrame extends JFrame {
 
         // 1️⃣ Game Logic
         Game game = new Game();
-        BoardPanel boardPanel = new BoardPanel(null);
-        controller = new GameController(game, boardPanel, computerMode);
-        boardPanel.setController(controller);
+        EdtWatchdog.shared().watch(game::getState);
+        BoardView boardPanel = animatedBoard ? new AnimatedBoardPanel(null) : new BoardPanel(null);
+        ComputerStrategy player1 = mode == Mode.COMPUTER_VS_COMPUTER ? createComputer(game, 1, monteCarlo) : null;
+        ComputerStrategy player2 = mode != Mode.TWO_PLAYERS ? createComputer(game, 2, monteCarlo) : null;
+        if (mode == Mode.COMPUTER_VS_COMPUTER) {
+            // Spectator: the game runs off the EDT and the board shows the latest published position
+            for (ComputerStrategy computer : List.of(player1, player2)) {
+                if (computer instanceof ComputerPlayer searcher) searcher.setVerbose(false); // Logging would slow fast games
+            }
+            spectator = new SpectatorController(game, boardPanel, player1, player2);
+        } else {
+            controller = new GameController(game, boardPanel, player1, player2);
+            boardPanel.setController(controller);
+        }
 
         // Top panel with roll label and button
         JPanel topPanel = new JPanel(new BorderLayout(10, 10));
         topPanel.setBackground(new Color(245, 245, 220));
         
-        rollLabel = new JLabel("Welcome to Senet! Roll the sticks to begin.");
+        rollLabel = new JLabel(spectator != null ? "Computer vs Computer" : "Welcome to Senet! Roll the sticks to begin.");
         rollLabel.setFont(new Font("Arial", Font.BOLD, 20));
         rollLabel.setHorizontalAlignment(SwingConstants.CENTER);
         rollLabel.setForeground(new Color(139, 69, 19));
         rollLabel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
-        controller.setRollLabel(rollLabel);
         
         rollButton = new JButton("Roll Sticks");
         rollButton.setFont(new Font("Arial", Font.BOLD, 16));
@@ -51,24 +107,47 @@ public class GameFrame extends JFrame {
         rollButton.setForeground(Color.WHITE);
         rollButton.setFocusPainted(false);
         rollButton.setCursor(new Cursor(Cursor.HAND_CURSOR));
-        rollButton.addActionListener(e -> {
-            controller.rollSticks();
-            if (computerMode && game.getCurrentPlayer() == 2) {
-                // Use Timer for delayed computer move
-                Timer timer = new Timer(1500, evt -> {
-                    controller.makeComputerMove();
-                });
-                timer.setRepeats(false);
-                timer.start();
-            }
+        rollButton.addActionListener(e -> controller.rollSticks());
+        
+        JComboBox<String> speedBox = new JComboBox<>(SPEED_NAMES);
+        speedBox.setFont(new Font("Arial", Font.PLAIN, 14));
+        speedBox.setToolTipText("Pace of computer turns");
+        speedBox.addActionListener(e -> {
+            int[] delays = SPEED_DELAYS[speedBox.getSelectedIndex()];
+            controller.setPacing(delays[0], delays[1]);
         });
         
-        // Set button reference after creating it
-        controller.setRollButton(rollButton);
+        JCheckBox hintsBox = new JCheckBox("Show move hints");
+        hintsBox.setFont(new Font("Arial", Font.PLAIN, 14));
+        hintsBox.setBackground(new Color(245, 245, 220));
+        hintsBox.setForeground(new Color(139, 69, 19));
+        hintsBox.setFocusPainted(false);
+        hintsBox.addActionListener(e -> controller.setMoveHintsEnabled(hintsBox.isSelected()));
+        
+        JSlider speedSlider = new JSlider(0, SPEED_STEPS, 10);
+        speedSlider.setBackground(new Color(245, 245, 220));
+        speedSlider.setPreferredSize(new Dimension(220, 45));
+        speedSlider.setMajorTickSpacing(10);
+        speedSlider.setPaintTicks(true);
+        speedSlider.setPaintLabels(true);
+        speedSlider.setLabelTable(new Hashtable<>(Map.of(
+            0, new JLabel("Real time"), 10, new JLabel("10/s"), 20, new JLabel("100/s"), SPEED_STEPS, new JLabel("Max"))));
+        speedSlider.setToolTipText("Moves per second");
+        speedSlider.addChangeListener(e -> spectator.setSpeed(sliderSpeed(speedSlider.getValue())));
         
         JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.CENTER));
         buttonPanel.setBackground(new Color(245, 245, 220));
-        buttonPanel.add(rollButton);
+        if (spectator != null) {
+            spectator.setSpeed(sliderSpeed(speedSlider.getValue()));
+            buttonPanel.add(speedSlider);
+        } else {
+            // Set label and button references after creating them
+            controller.setRollLabel(rollLabel);
+            controller.setRollButton(rollButton);
+            buttonPanel.add(hintsBox);
+            if (mode != Mode.TWO_PLAYERS) buttonPanel.add(speedBox);
+            buttonPanel.add(rollButton);
+        }
         
         topPanel.add(rollLabel, BorderLayout.CENTER);
         topPanel.add(buttonPanel, BorderLayout.EAST);
@@ -84,14 +163,13 @@ public class GameFrame extends JFrame {
             new Color(139, 69, 19)
         ));
 
-        JLabel player1Label = new JLabel("Player 1: 0 pieces exited");
+        JLabel player1Label = new JLabel();
         player1Label.setFont(new Font("Arial", Font.BOLD, 16));
         player1Label.setForeground(new Color(200, 0, 0));
         player1Label.setHorizontalAlignment(SwingConstants.CENTER);
         player1Label.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
 
-        String player2Text = computerMode ? "Computer: 0 pieces exited" : "Player 2: 0 pieces exited";
-        JLabel player2Label = new JLabel(player2Text);
+        JLabel player2Label = new JLabel();
         player2Label.setFont(new Font("Arial", Font.BOLD, 16));
         player2Label.setForeground(new Color(0, 0, 200));
         player2Label.setHorizontalAlignment(SwingConstants.CENTER);
@@ -100,7 +178,12 @@ public class GameFrame extends JFrame {
         infoPanel.add(player1Label);
         infoPanel.add(player2Label);
 
-        controller.setInfoLabels(player1Label, player2Label);
+        if (spectator != null) {
+            spectator.setLabels(rollLabel, player1Label, player2Label);
+        } else {
+            controller.setInfoLabels(player1Label, player2Label);
+            controller.refreshBoard();
+        }
 
         mainPanel.add(topPanel, BorderLayout.NORTH);
         mainPanel.add(boardPanel, BorderLayout.CENTER);
@@ -109,5 +192,19 @@ public class GameFrame extends JFrame {
         add(mainPanel, BorderLayout.CENTER);
 
         setVisible(true);
+        if (spectator != null) spectator.start();
+        else controller.start();
+    }
+
+    private static int sliderSpeed(int value) {
+        return value == SPEED_STEPS ? SpectatorController.MAX_SPEED : (int) Math.round(Math.pow(10, value / 10.0));
+    }
+
+    private static ComputerStrategy createComputer(Game game, int player, boolean monteCarlo) {
+        if (!monteCarlo) return new ComputerPlayer(game, player);
+        MctsPlayer mcts = new MctsPlayer(game, player);
+        mcts.setThreads(Runtime.getRuntime().availableProcessors());
+        mcts.setTimeBudget(1000);
+        return mcts;
     }
 }
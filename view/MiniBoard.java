@@ -0,0 +1,78 @@
+package view;
+
+import model.GameState;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.function.Supplier;
+
+/**
+ * A small read-only board for DashboardFrame, drawn from the SpriteAtlas.
+ * It shows the last position taken from its source and repaints only when
+ * refresh finds a new one.
+ */
+final class MiniBoard extends JComponent {
+    private static final int TITLE_HEIGHT = 14;
+    private static final int COLUMNS = 10;
+    private static final int ROWS = 3;
+    private static final Font TITLE_FONT = new Font("Arial", Font.PLAIN, 10);
+
+    private final String title;
+    private final Supplier<GameState> source;
+    private GameState shown;
+
+    MiniBoard(String title, Supplier<GameState> source) {
+        this.title = title;
+        this.source = source;
+        setOpaque(true);
+        setPreferredSize(new Dimension(COLUMNS * SpriteAtlas.CELL + 4, ROWS * SpriteAtlas.CELL + TITLE_HEIGHT + 4));
+        setToolTipText(title);
+    }
+
+    /**
+     * Takes the source's current position and repaints if it is a new one
+     * @return True if the board will repaint
+     */
+    boolean refresh() {
+        GameState state = source.get();
+        if (state == shown) return false;
+        shown = state;
+        repaint();
+        return true;
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        GameState state = shown;
+        int winner = state == null ? 0 : state.winner();
+        g.setColor(winner == 0 ? new Color(222, 184, 135) : new Color(255, 215, 0));
+        g.fillRect(0, 0, getWidth(), getHeight());
+
+        g.setColor(new Color(60, 30, 0));
+        g.setFont(TITLE_FONT);
+        String text = state == null ? title
+            : title + (winner != 0 ? "  P" + winner + " won" : "  " + state.getPlayer1Exited() + "-" + state.getPlayer2Exited());
+        g.drawString(text, 2, TITLE_HEIGHT - 3);
+
+        SpriteAtlas atlas = SpriteAtlas.shared();
+        for (int square = 0; square < COLUMNS * ROWS; square++) {
+            int x = 2 + column(square) * SpriteAtlas.CELL;
+            int y = TITLE_HEIGHT + 2 + square / COLUMNS * SpriteAtlas.CELL;
+            atlas.drawSquare(g, square, x, y);
+        }
+        if (state == null) return;
+        for (int piece = 0; piece < GameState.PIECES; piece++) {
+            int square = state.pieceSquare(piece);
+            if (square < 0) continue;
+            int x = 2 + column(square) * SpriteAtlas.CELL;
+            int y = TITLE_HEIGHT + 2 + square / COLUMNS * SpriteAtlas.CELL;
+            atlas.drawPiece(g, GameState.pieceOwner(piece), state.pieceCanExitNextTurn(piece), x, y);
+        }
+    }
+
+    // Same snake as BoardPanel: the middle row runs right to left
+    private static int column(int square) {
+        int col = square % COLUMNS;
+        return square / COLUMNS == 1 ? COLUMNS - 1 - col : col;
+    }
+}
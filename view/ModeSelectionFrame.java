@@ -9,7 +9,7 @@ public class ModeSelectionFrame extends JFrame {
     
     public ModeSelectionFrame() {
         setTitle("Senet Game - Select Mode");
-        setSize(600, 400);
+        setSize(960, 460);
         setDefaultCloseOperation(EXIT_ON_CLOSE);
         setLocationRelativeTo(null);
         setLayout(new BorderLayout());
@@ -51,31 +51,60 @@ public class ModeSelectionFrame extends JFrame {
         mainPanel.add(subtitleLabel, gbc);
         
         // Buttons panel
-        JPanel buttonPanel = new JPanel(new GridLayout(1, 2, 30, 0));
+        JPanel buttonPanel = new JPanel(new GridLayout(1, 3, 30, 0));
         buttonPanel.setOpaque(false);
         
+        // Board renderer choice
+        JComboBox<String> boardBox = new JComboBox<>(new String[] {"Classic board", "Animated board"});
+        boardBox.setFont(new Font("Arial", Font.PLAIN, 16));
+        
         // Two Players Button
         JButton twoPlayersBtn = createStyledButton("Two Players", new Color(34, 139, 34));
         twoPlayersBtn.addActionListener(e -> {
             dispose();
-            new GameFrame(false); // false = not computer mode
+            new GameFrame(GameFrame.Mode.TWO_PLAYERS, false, boardBox.getSelectedIndex() == 1);
         });
         
+        // Computer engine choice
+        JComboBox<String> engineBox = new JComboBox<>(new String[] {"Expectiminimax", "Monte Carlo Tree Search"});
+        engineBox.setFont(new Font("Arial", Font.PLAIN, 16));
+        
         // Computer Mode Button
         JButton computerBtn = createStyledButton("Play vs Computer", new Color(70, 130, 180));
         computerBtn.addActionListener(e -> {
             dispose();
-            new GameFrame(true); // true = computer mode
+            new GameFrame(GameFrame.Mode.VS_COMPUTER, engineBox.getSelectedIndex() == 1, boardBox.getSelectedIndex() == 1);
+        });
+        
+        // Computer vs Computer Button
+        JButton watchBtn = createStyledButton("Computer vs Computer", new Color(160, 82, 45));
+        watchBtn.addActionListener(e -> {
+            dispose();
+            new GameFrame(GameFrame.Mode.COMPUTER_VS_COMPUTER, engineBox.getSelectedIndex() == 1, boardBox.getSelectedIndex() == 1);
         });
         
         buttonPanel.add(twoPlayersBtn);
         buttonPanel.add(computerBtn);
+        buttonPanel.add(watchBtn);
         
         gbc.gridy = 2;
         gbc.gridwidth = 2;
         gbc.fill = GridBagConstraints.HORIZONTAL;
         mainPanel.add(buttonPanel, gbc);
         
+        // Engine row
+        JPanel enginePanel = new JPanel(new FlowLayout(FlowLayout.CENTER, 10, 0));
+        enginePanel.setOpaque(false);
+        JLabel engineLabel = new JLabel("Computer engine:");
+        engineLabel.setFont(new Font("Arial", Font.BOLD, 16));
+        engineLabel.setForeground(Color.WHITE);
+        enginePanel.add(engineLabel);
+        enginePanel.add(engineBox);
+        enginePanel.add(boardBox);
+        
+        gbc.gridy = 3;
+        mainPanel.add(enginePanel, gbc);
+        
         add(mainPanel, BorderLayout.CENTER);
         setVisible(true);
     }
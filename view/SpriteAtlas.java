@@ -0,0 +1,91 @@
+package view;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+/**
+ * Every square and piece image a MiniBoard needs, drawn once into a single
+ * image in the screen's format, so drawing a board is 30 to 44 image copies
+ * and nothing is rasterised per frame. All mini-boards share one atlas.
+ *
+ * Sprites, left to right: the plain square, the six houses 15 and 26 to 30
+ * (colours as CellPanel), then the red and blue pieces, then both again
+ * marked as allowed to exit next turn.
+ */
+final class SpriteAtlas {
+    static final int CELL = 12; // Sprite size in pixels
+
+    private static final int HOUSES = 7; // Plain square + six houses
+    private static final int PIECE_SPRITES = 4;
+    private static final Color PLAIN = new Color(245, 235, 200);
+    private static final Color[] HOUSE_COLORS = {
+        PLAIN,
+        new Color(255, 165, 0),   // 15 Rebirth
+        new Color(50, 205, 50),   // 26 Happiness
+        new Color(0, 191, 255),   // 27 Water
+        new Color(255, 20, 147),  // 28 Three Truths
+        new Color(255, 255, 0),   // 29 Re-Atoum
+        new Color(255, 192, 203)  // 30 Horus
+    };
+    private static final Color[] PIECE_COLORS = {new Color(220, 20, 60), new Color(30, 144, 255)};
+
+    private static SpriteAtlas shared;
+
+    private final Image image;
+
+    private SpriteAtlas() {
+        int width = (HOUSES + PIECE_SPRITES) * CELL;
+        BufferedImage atlas = GraphicsEnvironment.isHeadless()
+            ? new BufferedImage(width, CELL, BufferedImage.TYPE_INT_ARGB)
+            : GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice()
+                .getDefaultConfiguration().createCompatibleImage(width, CELL, Transparency.TRANSLUCENT);
+        Graphics2D g = atlas.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        for (int i = 0; i < HOUSES; i++) {
+            g.setColor(HOUSE_COLORS[i]);
+            g.fillRect(i * CELL, 0, CELL, CELL);
+            g.setColor(new Color(139, 69, 19));
+            g.drawRect(i * CELL, 0, CELL - 1, CELL - 1);
+        }
+        for (int i = 0; i < PIECE_SPRITES; i++) {
+            int x = (HOUSES + i) * CELL;
+            Color color = PIECE_COLORS[i % 2];
+            g.setColor(color);
+            g.fillOval(x + 2, 2, CELL - 4, CELL - 4);
+            g.setColor(color.darker());
+            g.drawOval(x + 2, 2, CELL - 4, CELL - 4);
+            if (i >= 2) { // May exit next turn
+                g.setColor(Color.WHITE);
+                g.fillOval(x + CELL / 2 - 2, CELL / 2 - 2, 4, 4);
+            }
+        }
+        g.dispose();
+        this.image = atlas;
+    }
+
+    /**
+     * The atlas all boards share; call on the EDT
+     */
+    static SpriteAtlas shared() {
+        if (shared == null) shared = new SpriteAtlas();
+        return shared;
+    }
+
+    void drawSquare(Graphics g, int square, int x, int y) {
+        int sprite = switch (square + 1) { // 1-indexed, as CellPanel
+            case 15 -> 1;
+            case 26, 27, 28, 29, 30 -> square + 1 - 24;
+            default -> 0;
+        };
+        draw(g, sprite, x, y);
+    }
+
+    void drawPiece(Graphics g, int owner, boolean canExitNextTurn, int x, int y) {
+        draw(g, HOUSES + (owner - 1) + (canExitNextTurn ? 2 : 0), x, y);
+    }
+
+    private void draw(Graphics g, int sprite, int x, int y) {
+        int sx = sprite * CELL;
+        g.drawImage(image, x, y, x + CELL, y + CELL, sx, 0, sx + CELL, CELL, null);
+    }
+}